@@ -0,0 +1,209 @@
+package hldf.taie.analysis.pta.plugin;
+
+import pascal.taie.World;
+import pascal.taie.language.annotation.Annotated;
+import pascal.taie.language.annotation.Annotation;
+import pascal.taie.language.annotation.ArrayElement;
+import pascal.taie.language.annotation.Element;
+import pascal.taie.language.annotation.EnumElement;
+import pascal.taie.language.annotation.StringElement;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 类层次结构上的注解索引，在第一次使用时遍历所有类构建一次。
+ * <p>
+ * 索引记录了每种注解类型所标注的类、方法、字段和方法形参，以及解析后的注解元素值，
+ * 从而避免在每个调用点上对注解列表做线性扫描和字符串比较。
+ * 索引构建完成后只会被读取，可以在多个线程中并发查询。
+ * <p>
+ * 当前的索引通过volatile字段发布，{@link #get()} 不加锁。第一次使用发生在单线程的初始化阶段
+ * （加载污点配置、求解器构建 {@link SpringBeanIndex}），此后的并发查询只读取该字段；
+ * 即使第一次使用恰好并发，也只是重复构建内容相同的索引。
+ * {@link World} 被重置后，索引根据新的类层次结构重新构建。
+ */
+public class AnnotationIndex {
+
+    /**
+     * 方法的形参
+     *
+     * @param method the method
+     * @param index  the index of the parameter
+     */
+    public record Param(JMethod method, int index) {
+    }
+
+    /**
+     * 注解元素值的缓存键
+     */
+    private record ElementKey(Object annotated, String type, String element) {
+    }
+
+    /**
+     * 当前World的注解索引
+     */
+    @Nullable
+    private static volatile AnnotationIndex current;
+
+    /**
+     * 构建索引所用的类层次结构，用于判断索引是否属于当前World
+     */
+    private final ClassHierarchy hierarchy;
+
+    private final MultiMap<String, JClass> classes = Maps.newMultiMap();
+
+    private final MultiMap<String, JMethod> methods = Maps.newMultiMap();
+
+    private final MultiMap<String, JField> fields = Maps.newMultiMap();
+
+    private final MultiMap<String, Param> params = Maps.newMultiMap();
+
+    /**
+     * 按正则表达式匹配注解类型得到的方法集合
+     */
+    private final Map<String, Set<JMethod>> methodsByPattern = new ConcurrentHashMap<>();
+
+    private final Map<ElementKey, List<String>> elementValues = new ConcurrentHashMap<>();
+
+    private AnnotationIndex(ClassHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        hierarchy.allClasses().forEach(jClass -> {
+            jClass.getAnnotations().forEach(a -> classes.put(a.getType(), jClass));
+            jClass.getDeclaredFields().forEach(field ->
+                    field.getAnnotations().forEach(a -> fields.put(a.getType(), field)));
+            jClass.getDeclaredMethods().forEach(method -> {
+                method.getAnnotations().forEach(a -> methods.put(a.getType(), method));
+                for (int i = 0; i < method.getParamCount(); ++i) {
+                    Param param = new Param(method, i);
+                    method.getParamAnnotations(i).forEach(a -> params.put(a.getType(), param));
+                }
+            });
+        });
+    }
+
+    /**
+     * @return 当前World的注解索引，第一次调用时构建
+     */
+    public static AnnotationIndex get() {
+        AnnotationIndex index = current;
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        if (index == null || index.hierarchy != hierarchy) {
+            index = new AnnotationIndex(hierarchy);
+            current = index;
+        }
+        return index;
+    }
+
+    /**
+     * 释放当前的注解索引，在 {@link World} 被重置后调用，
+     * 避免常驻进程在两次扫描之间持有上一次的类层次结构
+     */
+    public static void clear() {
+        current = null;
+    }
+
+    public Set<JClass> getClasses(String type) {
+        return classes.get(type);
+    }
+
+    public Set<JMethod> getMethods(String type) {
+        return methods.get(type);
+    }
+
+    public Set<JField> getFields(String type) {
+        return fields.get(type);
+    }
+
+    public Set<Param> getParams(String type) {
+        return params.get(type);
+    }
+
+    /**
+     * @return 被类型与 {@code typePattern} 匹配的任一注解标注的方法
+     */
+    public Set<JMethod> getMethods(Pattern typePattern) {
+        return methodsByPattern.computeIfAbsent(typePattern.pattern(), p -> {
+            Set<JMethod> result = Sets.newSet();
+            methods.keySet()
+                    .stream()
+                    .filter(type -> typePattern.matcher(type).matches())
+                    .forEach(type -> result.addAll(methods.get(type)));
+            return result;
+        });
+    }
+
+    public boolean isAnnotated(JClass jClass, String type) {
+        return classes.get(type).contains(jClass);
+    }
+
+    public boolean isAnnotated(JMethod method, String type) {
+        return methods.get(type).contains(method);
+    }
+
+    public boolean isAnnotated(JField field, String type) {
+        return fields.get(type).contains(field);
+    }
+
+    /**
+     * @return 注解元素的字符串值。字符串和枚举取其值，数组取其所有元素的值；
+     * 元素不存在时返回空列表
+     */
+    public List<String> getValues(Annotated annotated, String type, String element) {
+        return elementValues.computeIfAbsent(new ElementKey(annotated, type, element),
+                key -> parse(annotated.getAnnotation(type), element));
+    }
+
+    /**
+     * @return 注解元素的第一个字符串值，元素不存在时返回 {@code null}
+     */
+    @Nullable
+    public String getValue(Annotated annotated, String type, String element) {
+        List<String> values = getValues(annotated, type, element);
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * @return 方法形参上注解元素的第一个字符串值，元素不存在时返回 {@code null}
+     */
+    @Nullable
+    public String getParamValue(JMethod method, int index, String type, String element) {
+        List<String> values = elementValues.computeIfAbsent(
+                new ElementKey(new Param(method, index), type, element),
+                key -> parse(method.getParamAnnotation(index, type), element));
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    private static List<String> parse(@Nullable Annotation annotation, String element) {
+        if (annotation == null || !annotation.hasElement(element)) {
+            return List.of();
+        }
+        List<String> values = new ArrayList<>();
+        collect(annotation.getElement(element), values);
+        return List.copyOf(values);
+    }
+
+    private static void collect(Element element, List<String> values) {
+        if (element instanceof StringElement string) {
+            values.add(string.value());
+        } else if (element instanceof EnumElement enumElement) {
+            values.add(enumElement.name());
+        } else if (element instanceof ArrayElement array) {
+            array.elements().forEach(e -> collect(e, values));
+        } else {
+            values.add(element.toString());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package hldf.taie.analysis.pta.plugin;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.plugin.taint.TaintAnalysis;
+import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
+
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 在当前JVM中对单个应用执行一次扫描的命令行入口。
+ * <p>
+ * 用法：{@code AppScanner [--result-cache <缓存目录>] <应用classpath> [Tai-e参数...]}，
+ * 污点流逐行输出到标准输出。指定缓存目录时，未变化的应用直接使用 {@link ResultCache} 中的结果，不运行求解器。
+ */
+public class AppScanner {
+
+    private static final Logger logger = LogManager.getLogger(AppScanner.class);
+
+    /**
+     * Tai-e的默认输出目录
+     */
+    private static final String DEFAULT_OUTPUT_DIR = "output";
+
+    private static final String OUTPUT_DIR = "--output-dir";
+
+    private AppScanner() {
+    }
+
+    public static void main(String[] args) {
+        ResultCache cache = null;
+        if (args.length >= 2 && args[0].equals("--result-cache")) {
+            cache = new ResultCache(Path.of(args[1]));
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        if (args.length < 1) {
+            System.err.println("Usage: AppScanner [--result-cache <dir>] <app-class-path> [Tai-e options...]");
+            return;
+        }
+        scan(Arrays.asList(args).subList(1, args.length), args[0], cache)
+                .forEach(System.out::println);
+    }
+
+    /**
+     * 以给定的应用classpath执行一次扫描，并返回检测到的污点流。
+     * 扫描结束后重置 {@link World}，释放本次扫描的类层次结构、IR和求解器状态。
+     * <p>
+     * 返回的是 {@link TaintFlow} 的字符串形式而不是 {@link TaintFlow} 本身：
+     * {@link TaintFlow} 引用的方法和调用点只在本次扫描的 {@link World} 中有效，扫描结束后即被重置，
+     * 而命中 {@link ResultCache} 时根本不会构建 {@link World}，只能得到缓存的字符串，
+     * 因此两种情况统一返回字符串，调用方无需区分结果是否来自缓存。
+     *
+     * @param baseArgs     所有扫描共用的Tai-e参数
+     * @param appClassPath 应用classpath
+     * @param cache        结果缓存，为 {@code null} 时不使用缓存
+     * @return 按字符串排序的污点流
+     */
+    public static List<String> scan(List<String> baseArgs, String appClassPath,
+                                    @Nullable ResultCache cache) {
+        List<String> args = new ArrayList<>(baseArgs);
+        args.add("-acp");
+        args.add(appClassPath);
+        String key = null;
+        if (cache != null) {
+            Path outputDir = getOutputDir(args);
+            key = cache.key(args);
+            List<String> cached = cache.load(key, outputDir);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        logger.info("Scanning {}", appClassPath);
+        World.reset();
+        try {
+            Main.main(args.toArray(String[]::new));
+            PointerAnalysisResult pta = World.get().getResult(PointerAnalysis.ID);
+            Set<TaintFlow> taintFlows = pta == null ? null
+                    : pta.getResult(TaintAnalysis.class.getName());
+            List<String> result = taintFlows == null ? List.of()
+                    : taintFlows.stream().map(TaintFlow::toString).sorted().toList();
+            if (cache != null) {
+                cache.store(key, result, World.get().getOptions().getOutputDir().toPath());
+            }
+            return result;
+        } finally {
+            World.reset();
+            AnnotationIndex.clear();
+            JavaBeanInfo.clear();
+        }
+    }
+
+    private static Path getOutputDir(List<String> args) {
+        for (int i = 0; i < args.size(); ++i) {
+            String arg = args.get(i);
+            if (arg.equals(OUTPUT_DIR) && i + 1 < args.size()) {
+                return Path.of(args.get(i + 1));
+            } else if (arg.startsWith(OUTPUT_DIR + "=")) {
+                return Path.of(arg.substring(OUTPUT_DIR.length() + 1));
+            }
+        }
+        return Path.of(DEFAULT_OUTPUT_DIR);
+    }
+}
@@ -0,0 +1,43 @@
+package hldf.taie.analysis.pta.plugin;
+
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * web框架入口函数检测器。
+ * <p>
+ * {@link WebPlugin} 对每个应用类只遍历一次：根据类的父类、实现的接口（包括间接的）以及类上的注解，
+ * 通过预先构建的查找表找到匹配的检测器，再由这些检测器给出类中的入口函数。
+ * 除内置的检测器外，还可以通过 {@link java.util.ServiceLoader} 注册自定义的检测器，
+ * 即在 {@code META-INF/services/hldf.taie.analysis.pta.plugin.EntryPointDetector} 中列出实现类。
+ * 检测器可能被多个线程并发调用，实现时不能依赖可变状态。
+ */
+public interface EntryPointDetector {
+
+    /**
+     * @return 框架名称，用于统计每个框架的入口函数数量和耗时
+     */
+    String getName();
+
+    /**
+     * @return 类的父类或实现的接口（包括间接的）中出现这些类型时，该检测器匹配该类
+     */
+    default Set<String> getSuperTypes() {
+        return Set.of();
+    }
+
+    /**
+     * @return 类上标注了这些注解中的任意一个时，该检测器匹配该类
+     */
+    default Set<String> getClassAnnotations() {
+        return Set.of();
+    }
+
+    /**
+     * @return 匹配的类中的入口函数
+     */
+    Stream<JMethod> getEntryMethods(JClass jClass);
+}
@@ -0,0 +1,201 @@
+package hldf.taie.analysis.pta.plugin;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.language.annotation.Annotation;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 内置的入口函数检测器，以及在一次遍历中对每个类运行所有检测器的调度逻辑。
+ */
+class EntryPointDetectors {
+
+    private static final Logger logger = LogManager.getLogger(EntryPointDetectors.class);
+
+    private static final Pattern SERVLET_REQUEST = Pattern.compile(
+            "do(Get|Head|Post|Put|Delete|Options|Trace|)|service");
+
+    private static final Set<String> JAX_RS_METHODS = Set.of(
+            "GET", "POST", "PUT", "DELETE", "HEAD", "OPTIONS", "PATCH", "Path");
+
+    /**
+     * 只根据类型和注解匹配类，并按条件筛选类中声明的方法的检测器
+     */
+    private record SimpleDetector(String name, Set<String> superTypes,
+                                  Set<String> classAnnotations,
+                                  BiPredicate<JClass, JMethod> isEntry)
+            implements EntryPointDetector {
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Set<String> getSuperTypes() {
+            return superTypes;
+        }
+
+        @Override
+        public Set<String> getClassAnnotations() {
+            return classAnnotations;
+        }
+
+        @Override
+        public Stream<JMethod> getEntryMethods(JClass jClass) {
+            return jClass.getDeclaredMethods().stream().filter(m -> isEntry.test(jClass, m));
+        }
+    }
+
+    private static final List<EntryPointDetector> BUILTIN_DETECTORS = List.of(
+            // Spring MVC和Spring WebFlux的注解控制器
+            new SimpleDetector("Spring",
+                    Set.of(),
+                    Set.of(ComponentType.ControllerType.getName(),
+                            ComponentType.RestControllerType.getName()),
+                    (c, m) -> WebPlugin.isSpringMVCRequest(m)),
+            new SimpleDetector("Servlet",
+                    Set.of("javax.servlet.http.HttpServlet", "jakarta.servlet.http.HttpServlet"),
+                    Set.of(),
+                    (c, m) -> SERVLET_REQUEST.matcher(m.getName()).matches()),
+            new SimpleDetector("JSP",
+                    Set.of("org.apache.jasper.runtime.HttpJspBase"),
+                    Set.of(),
+                    (c, m) -> c.getSimpleName().endsWith("_jsp")
+                            && m.getName().equals("_jspService")),
+            new SimpleDetector("Struts2",
+                    Set.of("com.opensymphony.xwork2.Action", "com.opensymphony.xwork2.ActionSupport"),
+                    Set.of(),
+                    (c, m) -> m.getName().equals("execute") && m.getParamCount() == 0),
+            // JAX-RS，包括Jersey、RESTEasy等实现
+            new SimpleDetector("JAX-RS",
+                    Set.of(),
+                    Set.of("javax.ws.rs.Path", "jakarta.ws.rs.Path"),
+                    (c, m) -> isJaxRsMethod(m)),
+            new SimpleDetector("gRPC",
+                    Set.of("io.grpc.BindableService"),
+                    Set.of(),
+                    (c, m) -> isGrpcMethod(m))
+    );
+
+    private final List<EntryPointDetector> detectors;
+
+    private final MultiMap<String, EntryPointDetector> bySuperType = Maps.newMultiMap();
+
+    private final MultiMap<String, EntryPointDetector> byAnnotation = Maps.newMultiMap();
+
+    private final Map<String, LongAdder> entryCounts = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> nanos = new ConcurrentHashMap<>();
+
+    EntryPointDetectors() {
+        List<EntryPointDetector> detectors = new ArrayList<>(BUILTIN_DETECTORS);
+        ServiceLoader.load(EntryPointDetector.class).forEach(detectors::add);
+        this.detectors = List.copyOf(detectors);
+        for (EntryPointDetector detector : this.detectors) {
+            detector.getSuperTypes().forEach(type -> bySuperType.put(type, detector));
+            detector.getClassAnnotations().forEach(type -> byAnnotation.put(type, detector));
+            entryCounts.put(detector.getName(), new LongAdder());
+            nanos.put(detector.getName(), new LongAdder());
+        }
+    }
+
+    /**
+     * 找出与 {@code jClass} 匹配的所有检测器，并返回它们给出的入口函数。该方法可以并行调用
+     */
+    Stream<JMethod> detect(JClass jClass) {
+        Set<EntryPointDetector> matched = Sets.newHybridSet();
+        for (Annotation annotation : jClass.getAnnotations()) {
+            matched.addAll(byAnnotation.get(annotation.getType()));
+        }
+        if (!bySuperType.isEmpty()) {
+            forEachSuperType(jClass, superType ->
+                    matched.addAll(bySuperType.get(superType.getName())));
+        }
+        if (matched.isEmpty()) {
+            return Stream.empty();
+        }
+        List<JMethod> entries = new ArrayList<>();
+        // 按检测器的注册顺序执行，保证结果是确定的
+        for (EntryPointDetector detector : detectors) {
+            if (matched.contains(detector)) {
+                long start = System.nanoTime();
+                List<JMethod> methods = detector.getEntryMethods(jClass).toList();
+                nanos.get(detector.getName()).add(System.nanoTime() - start);
+                entryCounts.get(detector.getName()).add(methods.size());
+                methods.stream().filter(m -> !entries.contains(m)).forEach(entries::add);
+            }
+        }
+        return entries.stream();
+    }
+
+    /**
+     * 输出每个框架的入口函数数量和耗时
+     */
+    void report() {
+        for (EntryPointDetector detector : detectors) {
+            String name = detector.getName();
+            logger.info("{}: {} entry point(s), {}ms", name, entryCounts.get(name).sum(),
+                    nanos.get(name).sum() / 1_000_000);
+        }
+    }
+
+    /**
+     * 遍历 {@code jClass} 的所有父类和实现的接口，包括间接的
+     */
+    private static void forEachSuperType(JClass jClass, Consumer<JClass> action) {
+        Set<JClass> visited = Sets.newHybridSet();
+        Deque<JClass> workList = new ArrayDeque<>();
+        workList.add(jClass);
+        while (!workList.isEmpty()) {
+            JClass c = workList.poll();
+            JClass superClass = c.getSuperClass();
+            if (superClass != null && visited.add(superClass)) {
+                action.accept(superClass);
+                workList.add(superClass);
+            }
+            for (JClass iface : c.getInterfaces()) {
+                if (iface != null && visited.add(iface)) {
+                    action.accept(iface);
+                    workList.add(iface);
+                }
+            }
+        }
+    }
+
+    private static boolean isJaxRsMethod(JMethod method) {
+        return method.getAnnotations().stream().anyMatch(annotation -> {
+            String type = annotation.getType();
+            return (type.startsWith("javax.ws.rs.") || type.startsWith("jakarta.ws.rs."))
+                    && JAX_RS_METHODS.contains(type.substring(type.lastIndexOf('.') + 1));
+        });
+    }
+
+    private static boolean isGrpcMethod(JMethod method) {
+        int n = method.getParamCount();
+        if (!method.isPublic() || method.isStatic() || n == 0) {
+            return false;
+        }
+        Type last = method.getParamType(n - 1);
+        return last.getName().equals("io.grpc.stub.StreamObserver");
+    }
+}
@@ -0,0 +1,182 @@
+package hldf.taie.analysis.pta.plugin;
+
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.VoidType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 根据JDK的class文件生成字符串、集合类API的污点传播摘要（transfers）。
+ * <p>
+ * 污点配置中 {@code jdk-summaries: true} 时，摘要在加载配置时根据被分析的JDK生成，
+ * 不随插件发布固定的摘要文件，因此摘要始终与生成规则和JDK版本一致。
+ * 也可以将摘要输出到文件，再通过 {@code jdk-summaries: <文件>} 加载，
+ * 用法：{@code JDKSummaryGenerator <输出文件> [Tai-e参数...]}，例如
+ * {@code JDKSummaryGenerator jdk-summaries.yml -java 8}，
+ * 其余参数原样传递给Tai-e用于加载对应版本的JDK。
+ */
+public class JDKSummaryGenerator {
+
+    /**
+     * 不可变类，污点只会从参数和this流向返回值
+     */
+    private static final List<String> IMMUTABLE_CLASSES = List.of(
+            ClassNames.STRING);
+
+    /**
+     * 可变类，修改方法会将参数中的污点传播给this
+     */
+    private static final List<String> MUTABLE_CLASSES = List.of(
+            "java.lang.StringBuilder",
+            "java.lang.StringBuffer",
+            "java.util.ArrayList",
+            "java.util.LinkedList",
+            "java.util.Vector",
+            "java.util.ArrayDeque",
+            "java.util.HashSet",
+            "java.util.LinkedHashSet",
+            "java.util.HashMap",
+            "java.util.LinkedHashMap",
+            "java.util.TreeMap",
+            "java.util.Hashtable");
+
+    private static final Pattern MUTATOR = Pattern.compile(
+            "append|insert|add|addAll|addFirst|addLast|offer|offerFirst|offerLast|push|put|putAll|putIfAbsent|set|replace");
+
+    /**
+     * 可以携带污点的返回值类型，返回其他类型（如Iterator、Set视图）的方法不生成摘要，仍然分析其方法体
+     */
+    private static final Set<String> CARRIER_RETURN_TYPES = Set.of(
+            ClassNames.OBJECT, ClassNames.STRING, "java.lang.CharSequence", "char[]", "byte[]");
+
+    /**
+     * 可以携带污点的参数类型
+     */
+    private static final Set<String> CARRIER_PARAM_TYPES = Set.of(
+            ClassNames.OBJECT, ClassNames.STRING, "java.lang.CharSequence", "char[]", "byte[]",
+            "java.lang.StringBuilder", "java.lang.StringBuffer", "java.util.Collection", "java.util.Map");
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: JDKSummaryGenerator <output-file> [Tai-e options...]");
+            return;
+        }
+        Main.buildWorld(Arrays.copyOfRange(args, 1, args.length));
+        List<String> summaries = generate(World.get().getClassHierarchy());
+        Files.writeString(Path.of(args[0]), toDocument(summaries));
+        System.out.println("Generated " + summaries.size() + " JDK summaries to " + args[0]);
+    }
+
+    /**
+     * @return 包含 {@code summaries} 的YAML文档，格式与污点配置相同
+     */
+    public static String toDocument(List<String> summaries) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# Taint transfer summaries for JDK string and collection APIs.\n");
+        sb.append("# Regenerate with ").append(JDKSummaryGenerator.class.getName()).append(".\n");
+        sb.append("transfers:\n");
+        summaries.forEach(s -> sb.append("  - ").append(s).append("\n"));
+        return sb.toString();
+    }
+
+    /**
+     * 为 {@link #IMMUTABLE_CLASSES} 和 {@link #MUTABLE_CLASSES} 中的public方法生成摘要，
+     * 每条摘要都是一行YAML flow mapping，格式与污点配置中的 transfers 一致
+     */
+    public static List<String> generate(ClassHierarchy hierarchy) {
+        List<String> summaries = new ArrayList<>();
+        IMMUTABLE_CLASSES.forEach(name -> generate(hierarchy.getJREClass(name), false, summaries));
+        MUTABLE_CLASSES.forEach(name -> generate(hierarchy.getJREClass(name), true, summaries));
+        return summaries;
+    }
+
+    private static void generate(JClass jClass, boolean mutable, List<String> summaries) {
+        if (jClass == null) {
+            return;
+        }
+        jClass.getDeclaredMethods()
+                .stream()
+                .filter(m -> m.isPublic() && !m.isAbstract() && !m.isStaticInitializer())
+                .sorted(Comparator.comparing(JMethod::getSignature))
+                .forEach(method -> {
+                    Type returnType = method.getReturnType();
+                    boolean returnsCarrier = isCarrier(returnType, jClass, CARRIER_RETURN_TYPES);
+                    if (method.isConstructor()) {
+                        // new String(char[]) / new StringBuilder(String) 等构造函数，参数 -> this
+                        addParamTransfers(method, jClass, "base", summaries);
+                    } else if (method.isStatic()) {
+                        // String.valueOf/format/join 等静态方法，参数 -> 返回值
+                        if (returnsCarrier) {
+                            addParamTransfers(method, jClass, "result", summaries);
+                        }
+                    } else {
+                        if (returnsCarrier) {
+                            summaries.add(toYAML(method, "base", "result"));
+                            if (!mutable) {
+                                // 不可变类的 concat/replace 等方法，参数 -> 返回值
+                                addParamTransfers(method, jClass, "result", summaries);
+                            }
+                        }
+                        if (mutable && MUTATOR.matcher(method.getName()).matches()
+                                && (returnsCarrier || returnType instanceof VoidType
+                                || returnType instanceof PrimitiveType)) {
+                            // append/put/add 等修改方法，参数 -> this
+                            addParamTransfers(method, jClass, "base", summaries);
+                        }
+                    }
+                });
+    }
+
+    private static void addParamTransfers(JMethod method, JClass jClass,
+                                          String to, List<String> summaries) {
+        for (int i = 0; i < method.getParamCount(); ++i) {
+            Type paramType = method.getParamType(i);
+            if (paramType instanceof ArrayType arrayType
+                    && !(arrayType.elementType() instanceof PrimitiveType)) {
+                // String.format(String, Object[]) 等可变参数，污点在数组元素上
+                summaries.add(toYAML(method, i + "[*]", to));
+            } else if (isCarrier(paramType, jClass, CARRIER_PARAM_TYPES)) {
+                summaries.add(toYAML(method, Integer.toString(i), to));
+            }
+        }
+    }
+
+    private static boolean isCarrier(Type type, JClass jClass, Set<String> carriers) {
+        return carriers.contains(type.getName()) || type.equals(jClass.getType());
+    }
+
+    private static String toYAML(JMethod method, String from, String to) {
+        return toYAML(method.getSignature(), from, to);
+    }
+
+    /**
+     * @return 方法签名为 {@code signature} 的一条摘要
+     */
+    static String toYAML(String signature, String from, String to) {
+        return "{ method: \"" + signature + "\", from: " + quote(from)
+                + ", to: " + quote(to) + " }";
+    }
+
+    /**
+     * "0[*]" 中的方括号在YAML flow mapping中有特殊含义，需要加引号
+     */
+    private static String quote(String point) {
+        return point.contains("[") ? "\"" + point + "\"" : point;
+    }
+}
@@ -0,0 +1,194 @@
+package hldf.taie.analysis.pta.plugin;
+
+import pascal.taie.World;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.VoidType;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 类的JavaBean属性信息，每个类只计算一次，并缓存到当前World的类层次结构被替换为止。
+ * <p>
+ * 属性包括类中声明的字段以及从父类继承的字段，每个属性的getter/setter先在本类中查找，
+ * 找不到时再沿父类向上查找。类中声明的所有字段都有getter和setter时，该类才是JavaBean。
+ * JDK中的类不会被视为JavaBean，也不计算其属性。
+ * <p>
+ * 缓存通过volatile字段发布，查询不加锁，与 {@link AnnotationIndex} 相同。
+ */
+public class JavaBeanInfo {
+
+    /**
+     * JavaBean的一个属性
+     *
+     * @param field  属性对应的字段
+     * @param getter 无参的 {@code getXxx} 方法，不存在时为 {@code null}
+     * @param setter 只有一个参数且返回void的 {@code setXxx} 方法，不存在时为 {@code null}
+     */
+    public record Property(JField field, @Nullable JMethod getter, @Nullable JMethod setter) {
+    }
+
+    /**
+     * 缓存及其所属的类层次结构
+     */
+    private record Cache(ClassHierarchy hierarchy, Map<JClass, JavaBeanInfo> infos) {
+    }
+
+    private static final JavaBeanInfo NOT_JAVA_BEAN = new JavaBeanInfo(false, Map.of());
+
+    @Nullable
+    private static volatile Cache cache;
+
+    private final boolean isJavaBean;
+
+    /**
+     * 属性名到属性的映射，本类中声明的字段会覆盖父类中的同名字段
+     */
+    private final Map<String, Property> properties;
+
+    private JavaBeanInfo(boolean isJavaBean, Map<String, Property> properties) {
+        this.isJavaBean = isJavaBean;
+        this.properties = properties;
+    }
+
+    private static JavaBeanInfo compute(JClass jClass) {
+        if (WebEntryParamProvider.isJDKAPI(jClass.getType())) {
+            return NOT_JAVA_BEAN;
+        }
+        Map<String, Property> properties = Maps.newLinkedHashMap();
+        for (JClass c = jClass; c != null; c = c.getSuperClass()) {
+            for (JField field : c.getDeclaredFields()) {
+                properties.computeIfAbsent(field.getName(), name -> new Property(field,
+                        findGetter(jClass, field), findSetter(jClass, field)));
+            }
+        }
+        boolean isJavaBean = jClass.getDeclaredFields().stream()
+                .map(field -> properties.get(field.getName()))
+                .allMatch(p -> p.getter() != null && p.setter() != null);
+        return new JavaBeanInfo(isJavaBean, Collections.unmodifiableMap(properties));
+    }
+
+    /**
+     * @return {@code jClass} 的JavaBean属性信息，第一次调用时计算
+     */
+    public static JavaBeanInfo of(JClass jClass) {
+        return getCache().computeIfAbsent(jClass, JavaBeanInfo::compute);
+    }
+
+    private static Map<JClass, JavaBeanInfo> getCache() {
+        Cache c = cache;
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        if (c == null || c.hierarchy() != hierarchy) {
+            c = new Cache(hierarchy, new ConcurrentHashMap<>());
+            cache = c;
+        }
+        return c.infos();
+    }
+
+    /**
+     * 释放缓存，在 {@link World} 被重置后调用
+     */
+    public static void clear() {
+        cache = null;
+    }
+
+    public boolean isJavaBean() {
+        return isJavaBean;
+    }
+
+    /**
+     * @return 名为 {@code name} 的属性，包括继承的属性，不存在时返回 {@code null}
+     */
+    @Nullable
+    public Property getProperty(String name) {
+        return properties.get(name);
+    }
+
+    public Map<String, Property> getProperties() {
+        return properties;
+    }
+
+    @Nullable
+    public JMethod getGetter(String name) {
+        Property property = properties.get(name);
+        return property != null ? property.getter() : null;
+    }
+
+    @Nullable
+    public JMethod getSetter(String name) {
+        Property property = properties.get(name);
+        return property != null ? property.setter() : null;
+    }
+
+    /**
+     * 按名称查找无参且有返回值的 {@code getXxx} 方法，
+     * 存在多个时（如桥接方法）优先返回类型与字段类型相同的
+     */
+    @Nullable
+    private static JMethod findGetter(JClass jClass, JField field) {
+        String name = "get" + capitalize(field.getName());
+        for (JClass c = jClass; c != null; c = c.getSuperClass()) {
+            JMethod method = findMethod(c, name, 0, field.getType(),
+                    m -> !(m.getReturnType() instanceof VoidType), JMethod::getReturnType);
+            if (method != null) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按名称查找只有一个参数且返回void的 {@code setXxx} 方法，
+     * 存在重载时优先返回参数类型与字段类型相同的
+     */
+    @Nullable
+    private static JMethod findSetter(JClass jClass, JField field) {
+        String name = "set" + capitalize(field.getName());
+        for (JClass c = jClass; c != null; c = c.getSuperClass()) {
+            JMethod method = findMethod(c, name, 1, field.getType(),
+                    m -> m.getReturnType() instanceof VoidType, m -> m.getParamType(0));
+            if (method != null) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 在 {@code jClass} 声明的方法中按名称、参数个数和返回类型查找，
+     * 不使用 {@link JClass#getDeclaredMethod(String)}，因为它在方法重载时会抛出异常
+     *
+     * @param preferred 优先选择 {@code typeOf} 与其相同的方法
+     */
+    @Nullable
+    private static JMethod findMethod(JClass jClass, String name, int paramCount,
+                                      Type preferred, Predicate<JMethod> returnFilter,
+                                      Function<JMethod, Type> typeOf) {
+        JMethod result = null;
+        for (JMethod method : jClass.getDeclaredMethods()) {
+            if (method.getName().equals(name) && method.getParamCount() == paramCount
+                    && !method.isStatic() && returnFilter.test(method)) {
+                if (typeOf.apply(method).equals(preferred)) {
+                    return method;
+                }
+                if (result == null) {
+                    result = method;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static String capitalize(String name) {
+        return name.substring(0, 1).toUpperCase() + name.substring(1);
+    }
+}
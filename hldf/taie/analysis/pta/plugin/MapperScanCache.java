@@ -0,0 +1,219 @@
+package hldf.taie.analysis.pta.plugin;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Mapper.xml扫描结果缓存，对内容未发生变化的jar或目录直接返回上一次的解析结果而不再解析。
+ * <p>
+ * 缓存键是jar的内容，或目录下所有Mapper.xml的相对路径和内容（按路径排序）的SHA-256摘要。
+ * 缓存的是 {@link MapperXmlParser.MapperXml}，即每个语句和sql片段中的占位符及其引用的片段，
+ * 而不是最终的 {@link MybatisSink}：sink还依赖其他jar中的sql片段以及Mapper接口和参数类型的定义，
+ * 因此每次运行都根据缓存的解析结果重新计算。
+ * 缓存目录可以被多个应用和同时运行的多个扫描共用。每个缓存项是一个文本文件，
+ * 每次写入都使用独立的临时文件，再原子地重命名为最终文件，不支持原子重命名时不写入；
+ * 最后一行记录缓存项的行数，读取时校验，不完整的缓存项被视为未命中。
+ */
+class MapperScanCache {
+
+    private static final Logger logger = LogManager.getLogger(MapperScanCache.class);
+
+    /**
+     * 缓存文件格式的版本，格式变化时旧的缓存项自动失效
+     */
+    private static final String HEADER = "mapper-scan-cache 3";
+
+    private static final String NAMESPACE = "N";
+
+    private static final String FRAGMENT = "F";
+
+    private static final String STATEMENT = "S";
+
+    private static final String END = "E";
+
+    private final Path cacheDir;
+
+    MapperScanCache(Path cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * @return 类路径条目的内容摘要，读取失败时返回 {@code null}
+     */
+    @Nullable
+    String digest(String appClassPath) {
+        MessageDigest digest = newDigest();
+        Path path = Path.of(appClassPath);
+        try {
+            if (Files.isRegularFile(path)) {
+                updateFile(digest, path);
+            } else if (Files.isDirectory(path)) {
+                try (Stream<Path> paths = Files.walk(path)) {
+                    List<Path> files = paths.filter(f -> Files.isRegularFile(f)
+                                    && f.toString().endsWith("Mapper.xml"))
+                            .sorted()
+                            .toList();
+                    for (Path file : files) {
+                        digest.update(path.relativize(file).toString()
+                                .getBytes(StandardCharsets.UTF_8));
+                        updateFile(digest, file);
+                    }
+                }
+            } else {
+                return null;
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to digest {}", appClassPath, e);
+            return null;
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * @return 缓存的解析结果，缓存未命中或缓存文件无效时返回 {@code null}
+     */
+    @Nullable
+    List<MapperXmlParser.MapperXml> load(String key) {
+        Path entry = cacheDir.resolve(key);
+        if (!Files.isRegularFile(entry)) {
+            return null;
+        }
+        try {
+            List<String> lines = Files.readAllLines(entry, StandardCharsets.UTF_8);
+            if (lines.size() < 2 || !lines.get(0).equals(HEADER)
+                    || !lines.get(lines.size() - 1).equals(END + "\t" + lines.size())) {
+                return null;
+            }
+            List<MapperXmlParser.MapperXml> mappers = new ArrayList<>();
+            String namespace = null;
+            Map<String, MapperXmlParser.SqlPart> fragments = null;
+            List<MapperXmlParser.Statement> statements = null;
+            for (String line : lines.subList(1, lines.size() - 1)) {
+                String[] fields = line.split("\t", -1);
+                if (fields[0].equals(NAMESPACE)) {
+                    if (namespace != null) {
+                        mappers.add(new MapperXmlParser.MapperXml(namespace, fragments, statements));
+                    }
+                    namespace = fields[1];
+                    fragments = Maps.newLinkedHashMap();
+                    statements = new ArrayList<>();
+                } else {
+                    MapperXmlParser.SqlPart part = new MapperXmlParser.SqlPart(
+                            new LinkedHashSet<>(split(fields[2], ",")),
+                            split(fields[3], ",").stream().map(MapperScanCache::toInclude).toList());
+                    if (fields[0].equals(FRAGMENT)) {
+                        fragments.put(fields[1], part);
+                    } else {
+                        statements.add(new MapperXmlParser.Statement(fields[1], part));
+                    }
+                }
+            }
+            if (namespace != null) {
+                mappers.add(new MapperXmlParser.MapperXml(namespace, fragments, statements));
+            }
+            return mappers;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to load mapper scan cache {}", entry, e);
+            return null;
+        }
+    }
+
+    /**
+     * 将解析结果写入缓存，写入失败只记录日志，不影响扫描结果
+     */
+    void store(String key, List<MapperXmlParser.MapperXml> mappers) {
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        for (MapperXmlParser.MapperXml mapper : mappers) {
+            lines.add(NAMESPACE + "\t" + mapper.namespace());
+            mapper.fragments().forEach((id, part) -> lines.add(toLine(FRAGMENT, id, part)));
+            mapper.statements().forEach(s -> lines.add(toLine(STATEMENT, s.id(), s.sql())));
+        }
+        lines.add(END + "\t" + (lines.size() + 1));
+        Path entry = cacheDir.resolve(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(cacheDir);
+            temp = Files.createTempFile(cacheDir, key, ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
+        } catch (FileAlreadyExistsException e) {
+            // 其他扫描已经写入了相同的缓存项
+        } catch (AtomicMoveNotSupportedException e) {
+            logger.warn("Mapper scan cache {} does not support atomic move", cacheDir);
+        } catch (IOException e) {
+            logger.warn("Failed to store mapper scan cache {}", entry, e);
+        } finally {
+            if (temp != null) {
+                temp.toFile().delete();
+            }
+        }
+    }
+
+    /**
+     * 每行依次为类型、id、占位符和引用的片段，引用的片段格式为 {@code refid;name=path|path;...}
+     */
+    private static String toLine(String kind, String id, MapperXmlParser.SqlPart part) {
+        List<String> includes = new ArrayList<>();
+        for (MapperXmlParser.Include include : part.includes()) {
+            StringBuilder sb = new StringBuilder(include.refid());
+            include.bindings().forEach((name, paths) ->
+                    sb.append(';').append(name).append('=').append(String.join("|", paths)));
+            includes.add(sb.toString());
+        }
+        return kind + "\t" + id + "\t" + String.join(",", part.placeholders())
+                + "\t" + String.join(",", includes);
+    }
+
+    private static MapperXmlParser.Include toInclude(String field) {
+        List<String> parts = split(field, ";");
+        Map<String, List<String>> bindings = Maps.newMap();
+        for (String binding : parts.subList(1, parts.size())) {
+            int eq = binding.indexOf('=');
+            bindings.put(binding.substring(0, eq), split(binding.substring(eq + 1), "\\|"));
+        }
+        return new MapperXmlParser.Include(parts.get(0), bindings);
+    }
+
+    private static List<String> split(String field, String separator) {
+        return field.isEmpty() ? List.of() : List.of(field.split(separator));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void updateFile(MessageDigest digest, Path file) throws IOException {
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package hldf.taie.analysis.pta.plugin;
+
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于StAX的Mapper.xml流式解析器。
+ * <p>
+ * 解析时不构建DOM，对每个sql片段和增删改查语句只保留其中出现的 {@code ${...}} 占位符，
+ * 以及通过 {@code <include refid>} 引用的片段，因此内存占用与文件大小无关。
+ * 引用的片段在所有Mapper.xml解析完成后，通过 {@link FragmentIndex} 展开，
+ * 支持 {@code namespace.id} 形式的跨命名空间引用。
+ * <p>
+ * 占位符被转换为相对于Mapper接口方法参数的属性路径：{@code <foreach>} 的item和index
+ * 绑定到collection中的元素（记为 {@code collection[]}），{@code <bind>} 的name绑定到value表达式引用的路径，
+ * {@code <include>} 中 {@code <property>} 定义的名称绑定到其value中的占位符，不含占位符时为字面量。
+ * {@code <if>}、{@code <choose>}、{@code <where>} 等条件元素中的文本都可能出现在最终的sql中，因此全部保留。
+ */
+class MapperXmlParser {
+
+    private static final Set<String> STATEMENTS = Set.of("insert", "update", "delete", "select");
+
+    private static final String SQL = "sql";
+
+    private static final String INCLUDE = "include";
+
+    private static final String PROPERTY = "property";
+
+    private static final String FOREACH = "foreach";
+
+    private static final String BIND = "bind";
+
+    /**
+     * {@link XMLInputFactory} 不保证线程安全，而Mapper.xml是并行解析的，因此每个线程一个实例
+     */
+    private static final ThreadLocal<XMLInputFactory> FACTORY =
+            ThreadLocal.withInitial(MapperXmlParser::createFactory);
+
+    /**
+     * 一段SQL
+     *
+     * @param placeholders 直接出现在其中的 {@code ${...}} 占位符引用的属性路径
+     * @param includes     引用的sql片段
+     */
+    record SqlPart(Set<String> placeholders, List<Include> includes) {
+    }
+
+    /**
+     * 对sql片段的引用
+     *
+     * @param refid    引用的片段
+     * @param bindings 引用处可见的变量，变量名到其代表的属性路径的映射，
+     *                 片段中以这些变量开头的占位符会被替换为对应的路径；路径为空时代表字面量
+     */
+    record Include(String refid, Map<String, List<String>> bindings) {
+    }
+
+    /**
+     * 增删改查语句
+     *
+     * @param id  语句的id，即Mapper接口中的方法名
+     * @param sql 语句的SQL
+     */
+    record Statement(String id, SqlPart sql) {
+    }
+
+    /**
+     * 一个Mapper.xml的解析结果
+     *
+     * @param namespace  命名空间，即Mapper接口的类名
+     * @param fragments  sql片段的id到片段的映射
+     * @param statements 按出现顺序排列的增删改查语句
+     */
+    record MapperXml(String namespace, Map<String, SqlPart> fragments,
+                     List<Statement> statements) {
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // Mapper.xml的DOCTYPE指向网络上的DTD，解析时不需要加载
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        // 合并相邻的文本和CDATA，避免占位符被拆分到多个事件中
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    /**
+     * @return 解析结果，根元素没有namespace属性时返回 {@code null}
+     */
+    @Nullable
+    static MapperXml parse(InputStream inputStream) throws XMLStreamException {
+        XMLStreamReader reader = FACTORY.get().createXMLStreamReader(inputStream);
+        try {
+            String namespace = null;
+            Map<String, SqlPart> fragments = Maps.newLinkedHashMap();
+            List<Statement> statements = new ArrayList<>();
+            // 当前所在的sql片段或语句
+            String currentName = null;
+            String currentId = null;
+            Set<String> placeholders = null;
+            List<Include> includes = null;
+            // 当前语句中每层元素定义的变量，栈底是语句本身，<bind>定义的变量在整个语句中可见
+            Deque<Map<String, List<String>>> scopes = new ArrayDeque<>();
+            // 当前所在的<include>
+            String refid = null;
+            Map<String, List<String>> properties = null;
+            int depth = 0;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        ++depth;
+                        String name = reader.getLocalName();
+                        if (depth == 1) {
+                            namespace = reader.getAttributeValue(null, "namespace");
+                            if (namespace == null) {
+                                return null;
+                            }
+                        } else if (depth == 2 && (name.equals(SQL) || STATEMENTS.contains(name))) {
+                            currentName = name;
+                            currentId = reader.getAttributeValue(null, "id");
+                            placeholders = new LinkedHashSet<>();
+                            includes = new ArrayList<>();
+                            scopes.clear();
+                            scopes.push(Maps.newMap());
+                        } else if (currentName != null) {
+                            Map<String, List<String>> scope = Maps.newMap();
+                            switch (name) {
+                                case FOREACH -> {
+                                    String collection = reader.getAttributeValue(null, "collection");
+                                    List<String> elements = collection == null ? List.of()
+                                            : rewrite(scopes, MybatisHelper.getExpressionPaths(collection))
+                                            .stream().map(path -> path + "[]").toList();
+                                    bind(scope, reader.getAttributeValue(null, "item"), elements);
+                                    // 遍历Map时index是键，因此同样绑定到collection中的元素
+                                    bind(scope, reader.getAttributeValue(null, "index"), elements);
+                                }
+                                case BIND -> {
+                                    String value = reader.getAttributeValue(null, "value");
+                                    bind(scopes.getLast(), reader.getAttributeValue(null, "name"),
+                                            value == null ? List.of()
+                                                    : rewrite(scopes, MybatisHelper.getExpressionPaths(value)));
+                                }
+                                case INCLUDE -> {
+                                    refid = reader.getAttributeValue(null, "refid");
+                                    properties = Maps.newMap();
+                                }
+                                case PROPERTY -> {
+                                    String value = reader.getAttributeValue(null, "value");
+                                    if (properties != null) {
+                                        bind(properties, reader.getAttributeValue(null, "name"),
+                                                value == null ? List.of()
+                                                        : rewrite(scopes, MybatisHelper.getPlaceholders(value)));
+                                    }
+                                }
+                                default -> {
+                                }
+                            }
+                            scopes.push(scope);
+                        }
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                        if (currentName != null) {
+                            placeholders.addAll(rewrite(scopes,
+                                    MybatisHelper.getPlaceholders(reader.getText())));
+                        }
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        if (depth == 2 && currentName != null) {
+                            if (currentId != null) {
+                                SqlPart part = new SqlPart(placeholders, includes);
+                                if (currentName.equals(SQL)) {
+                                    fragments.put(currentId, part);
+                                } else {
+                                    statements.add(new Statement(currentId, part));
+                                }
+                            }
+                            currentName = null;
+                        } else if (depth > 2 && currentName != null) {
+                            scopes.pop();
+                            if (reader.getLocalName().equals(INCLUDE)) {
+                                if (refid != null) {
+                                    Map<String, List<String>> bindings = Maps.newMap();
+                                    scopes.descendingIterator().forEachRemaining(bindings::putAll);
+                                    bindings.putAll(properties);
+                                    includes.add(new Include(refid, bindings));
+                                }
+                                refid = null;
+                                properties = null;
+                            }
+                        }
+                        --depth;
+                    }
+                    default -> {
+                    }
+                }
+            }
+            return namespace == null ? null : new MapperXml(namespace, fragments, statements);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void bind(Map<String, List<String>> scope, @Nullable String name,
+                             List<String> paths) {
+        if (name != null && !name.isBlank()) {
+            scope.put(name.strip(), paths);
+        }
+    }
+
+    /**
+     * 将以变量开头的路径替换为变量代表的路径，内层定义的变量优先
+     */
+    private static List<String> rewrite(Deque<Map<String, List<String>>> scopes,
+                                        Collection<String> paths) {
+        List<String> result = new ArrayList<>();
+        for (String path : paths) {
+            List<String> replacement = null;
+            String root = MybatisHelper.getRoot(path);
+            for (Map<String, List<String>> scope : scopes) {
+                replacement = scope.get(root);
+                if (replacement != null) {
+                    break;
+                }
+            }
+            if (replacement == null) {
+                result.add(path);
+            } else {
+                String rest = path.substring(root.length());
+                replacement.forEach(p -> result.add(p + rest));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 将片段中的占位符按引用处的变量替换
+     */
+    static Set<String> rewrite(Map<String, List<String>> bindings, Set<String> paths) {
+        if (bindings.isEmpty()) {
+            return paths;
+        }
+        Deque<Map<String, List<String>>> scopes = new ArrayDeque<>();
+        scopes.push(bindings);
+        return new LinkedHashSet<>(rewrite(scopes, paths));
+    }
+
+    /**
+     * 所有Mapper.xml中sql片段的索引，键为 {@code namespace.id}，用于展开语句中引用的片段
+     */
+    static class FragmentIndex {
+
+        private final Map<String, SqlPart> fragments = Maps.newMap();
+
+        /**
+         * 片段所在的命名空间，用于展开片段中引用的其他片段
+         */
+        private final Map<String, String> namespaces = Maps.newMap();
+
+        /**
+         * 已完整展开的片段的占位符
+         */
+        private final Map<String, Set<String>> resolved = Maps.newMap();
+
+        /**
+         * 片段的展开结果
+         *
+         * @param placeholders 展开得到的占位符
+         * @param cutKeys      展开时因循环引用而跳过的片段，这些片段展开完成之前，结果是不完整的
+         */
+        private record Expansion(Set<String> placeholders, Set<String> cutKeys) {
+        }
+
+        FragmentIndex(List<MapperXml> mappers) {
+            mappers.forEach(mapper -> mapper.fragments().forEach((id, fragment) -> {
+                String key = mapper.namespace() + "." + id;
+                fragments.put(key, fragment);
+                namespaces.put(key, mapper.namespace());
+            }));
+        }
+
+        /**
+         * @return {@code part} 中的占位符，包括其直接或间接引用的片段中的占位符
+         */
+        Set<String> getPlaceholders(String namespace, SqlPart part) {
+            return expand(namespace, part, new LinkedHashSet<>()).placeholders();
+        }
+
+        /**
+         * 展开 {@code part} 引用的片段。只有没有跳过任何外层片段的展开结果才会被记录到 {@link #resolved}：
+         * 在循环引用中被截断的结果取决于从哪个片段开始展开，不能被其他语句复用
+         */
+        private Expansion expand(String namespace, SqlPart part, Set<String> visiting) {
+            if (part.includes().isEmpty()) {
+                return new Expansion(part.placeholders(), Set.of());
+            }
+            Set<String> result = new LinkedHashSet<>(part.placeholders());
+            Set<String> cutKeys = Set.of();
+            for (Include include : part.includes()) {
+                String refid = include.refid();
+                // 先在当前命名空间中查找，再作为跨命名空间的完整引用查找
+                String key = namespace + "." + refid;
+                if (!fragments.containsKey(key)) {
+                    key = refid;
+                }
+                SqlPart fragment = fragments.get(key);
+                if (fragment == null) {
+                    continue;
+                }
+                Set<String> placeholders = resolved.get(key);
+                if (placeholders == null) {
+                    if (!visiting.add(key)) {
+                        // 循环引用，该片段正在展开中，其占位符会由外层的展开计入
+                        cutKeys = union(cutKeys, Set.of(key));
+                        continue;
+                    }
+                    Expansion expansion = expand(namespaces.get(key), fragment, visiting);
+                    visiting.remove(key);
+                    placeholders = expansion.placeholders();
+                    Set<String> open = new LinkedHashSet<>(expansion.cutKeys());
+                    open.remove(key);
+                    if (open.isEmpty()) {
+                        resolved.put(key, placeholders);
+                    } else {
+                        cutKeys = union(cutKeys, open);
+                    }
+                }
+                result.addAll(rewrite(include.bindings(), placeholders));
+            }
+            return new Expansion(Collections.unmodifiableSet(result), cutKeys);
+        }
+
+        private static Set<String> union(Set<String> a, Set<String> b) {
+            if (a.isEmpty()) {
+                return b;
+            }
+            Set<String> result = new LinkedHashSet<>(a);
+            result.addAll(b);
+            return result;
+        }
+    }
+}
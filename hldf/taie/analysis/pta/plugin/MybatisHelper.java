@@ -1,27 +1,26 @@
 package hldf.taie.analysis.pta.plugin;
 
-import org.dom4j.Attribute;
-import org.dom4j.Document;
-import org.dom4j.Element;
-import org.dom4j.io.SAXReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.language.annotation.Annotation;
 import pascal.taie.language.classes.JClass;
-import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
 import pascal.taie.language.type.Type;
-import pascal.taie.util.collection.Sets;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import javax.annotation.Nullable;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -32,53 +31,157 @@ import java.util.stream.Stream;
  */
 public class MybatisHelper {
 
-    private static Pattern concatPattern = Pattern.compile("\\$\\{([\\w.]+)\\}");
+    private static final Logger logger = LogManager.getLogger(MybatisHelper.class);
 
-    private static Pattern paramPattern = Pattern.compile("^param(\\d+)$");
+    /**
+     * Mapper.xml扫描结果缓存的缺省目录，位于用户的缓存目录下，所有应用和所有运行共用。
+     * 缓存项以内容摘要为键，因此多个应用依赖的同一个jar只需要解析一次
+     */
+    public static final Path DEFAULT_MAPPER_SCAN_CACHE_DIR = Path.of(
+            System.getProperty("user.home"), ".cache", "hldf", "mapper-scan-cache");
+
+    /**
+     * Spring Boot的fat jar中存放依赖jar的目录
+     */
+    private static final String BOOT_INF_LIB = "BOOT-INF/lib/";
+
+    private static final Pattern concatPattern = Pattern.compile("\\$\\{([^}]*)}");
+
+    private static final Pattern paramPattern = Pattern.compile("^param(\\d+)$");
+
+    /**
+     * OGNL表达式中的属性路径，如 {@code user.name}、{@code list[].name}
+     */
+    private static final Pattern pathPattern = Pattern.compile(
+            "(?<![\\w$.@])[A-Za-z_$][\\w$]*(?:\\.[A-Za-z_$][\\w$]*|\\[])*");
+
+    private static final Set<String> OGNL_KEYWORDS = Set.of(
+            "and", "or", "not", "eq", "neq", "lt", "lte", "gt", "gte", "shl", "shr", "ushr",
+            "in", "instanceof", "new", "null", "true", "false", "this");
+
+    /**
+     * 单个参数为集合或数组且没有@Param注解时，Mybatis为其提供的名称
+     */
+    private static final Set<String> SINGLE_COLLECTION_NAMES = Set.of("list", "collection", "array");
+
+    /**
+     * 代表整个参数对象的名称
+     */
+    private static final String PARAMETER = "_parameter";
+
+    /**
+     * 占位符的解析结果
+     */
+    private sealed interface Resolution {
+
+        /**
+         * 占位符对应的参数或JavaBean参数的属性
+         */
+        record Param(MybatisSink sink) implements Resolution {
+        }
+
+        /**
+         * 占位符对应的不是可以拼接字符串的参数，例如基本类型的参数或属性、字面量
+         */
+        record NotParam() implements Resolution {
+        }
+
+        /**
+         * 占位符是Mybatis包装参数得到的整个Map，即所有参数
+         */
+        record AllParams() implements Resolution {
+        }
+
+        /**
+         * 占位符无法对应到具体的参数
+         */
+        record Unknown() implements Resolution {
+        }
+
+        Resolution NOT_PARAM = new NotParam();
+
+        Resolution ALL_PARAMS = new AllParams();
+
+        Resolution UNKNOWN = new Unknown();
+    }
 
     public static List<MybatisSink> isSqli(String sql, JMethod method) {
-        Set<String> concatArgNames = Sets.newSet();
-        List<MybatisSink> sinks = new ArrayList<>();
+        return isSqli(getPlaceholders(sql), method);
+    }
 
+    /**
+     * @return {@code sql} 中所有 {@code ${...}} 占位符引用的属性路径，
+     * 下标统一写为 {@code []}，忽略 {@code ,jdbcType=...} 等选项
+     */
+    static Set<String> getPlaceholders(String sql) {
+        Set<String> concatArgNames = new LinkedHashSet<>();
         Matcher matcher = concatPattern.matcher(sql);
         while(matcher.find()) {
-            concatArgNames.add(matcher.group(1));
-        }
-        AtomicBoolean flag = new AtomicBoolean(false);
-        concatArgNames.forEach(concatArgName -> {
-            if (method.getParamCount() == 1) {
-                Type paramType = method.getParamType(0);
-                if (WebEntryParamProvider.isJavaBean(paramType)) {
-                    JField field = World.get().getClassHierarchy().getClass(paramType.getName()).getDeclaredField(concatArgName);
-                    if (field != null && WebEntryParamProvider.isNotPrimitiveType(field.getType())) {
-                        sinks.add(new MybatisSink(method, 0, concatArgName));
-                    }
-                } else {
-                    flag.set(true);
-                }
-            } else {
-                for (int i = 0; i < method.getParamCount(); i++) {
-                    Annotation paramAnnotation = method.getParamAnnotation(i, "org.apache.ibatis.annotations.Param");
-                    if (WebEntryParamProvider.isNotPrimitiveType(method.getParamType(i))) {
-                         if (paramAnnotation != null
-                                && paramAnnotation.hasElement("value") && paramAnnotation.getElement("value").toString().equals("\"" + concatArgName + "\"")) {
-                             sinks.add(new MybatisSink(method, i, null));
-                             break;
-                         } else {
-                             Matcher matcher2 = paramPattern.matcher(concatArgName);
-                             if (matcher2.find()) {
-                                 sinks.add(new MybatisSink(method, Integer.parseInt(matcher2.group(1)) - 1, null));
-                                 break;
-                             }
-                         }
-                    }
-                    flag.set(true);
+            String expr = matcher.group(1);
+            int comma = expr.indexOf(',');
+            concatArgNames.addAll(getExpressionPaths(comma >= 0 ? expr.substring(0, comma) : expr));
+        }
+        return concatArgNames;
+    }
+
+    /**
+     * @return OGNL表达式中引用的属性路径，不包括字符串字面量、关键字以及静态方法调用
+     */
+    static Set<String> getExpressionPaths(String expr) {
+        String normalized = expr.replaceAll("'[^']*'|\"[^\"]*\"", " ")
+                .replaceAll("\\[[^\\]]*\\]", "[]");
+        Set<String> paths = new LinkedHashSet<>();
+        Matcher matcher = pathPattern.matcher(normalized);
+        while (matcher.find()) {
+            if (!OGNL_KEYWORDS.contains(matcher.group())) {
+                paths.add(matcher.group());
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * @return 属性路径的第一段，即参数名
+     */
+    static String getRoot(String path) {
+        int end = 0;
+        while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+            ++end;
+        }
+        return path.substring(0, end);
+    }
+
+    /**
+     * @return 属性路径中紧跟在参数名之后的属性，不存在时返回 {@code null}
+     */
+    private static String getFirstProperty(String path) {
+        String root = getRoot(path);
+        if (path.length() == root.length() || path.charAt(root.length()) != '.') {
+            return null;
+        }
+        return getRoot(path.substring(root.length() + 1));
+    }
+
+    /**
+     * @param concatArgNames 拼接到sql语句中的属性路径，即 {@code ${...}} 中的内容
+     */
+    static List<MybatisSink> isSqli(Set<String> concatArgNames, JMethod method) {
+        List<MybatisSink> sinks = new ArrayList<>();
+        boolean allParams = false;
+        for (String concatArgName : concatArgNames) {
+            Resolution resolution = resolvePlaceholder(concatArgName, method);
+            if (resolution instanceof Resolution.Param param) {
+                if (!sinks.contains(param.sink())) {
+                    sinks.add(param.sink());
                 }
+            } else if (!(resolution instanceof Resolution.NotParam)) {
+                allParams = true;
+                break;
             }
-        });
-        if (flag.get()) {
+        }
+        if (allParams) {
             sinks.clear();
-            // 由于soot生成ir时，没有保留接口中抽象方法的形参名，因此当方法未使用@Param注解传值时，这里无法通过参数名进行精确匹配，因此为了降低漏报，这里选择把所有参数都设置为sink
+            // 占位符引用了整个参数Map，或无法对应到具体的参数时，为了降低漏报，这里选择把所有参数都设置为sink
             for (int i = 0; i < method.getParamCount(); i++) {
                 Type paramType = method.getParamType(i);
                 if (WebEntryParamProvider.isNotPrimitiveType(paramType)) {
@@ -89,88 +192,289 @@ public class MybatisHelper {
         return sinks;
     }
 
-    private static void dealInclude(Element root, Element element, StringBuilder sql) {
-        element.elements("include").forEach(includeEle -> {
-            String refid = includeEle.attribute("refid").getText();
-            root.elements("sql").stream().filter(sqlEle -> sqlEle.attribute("id").getText().equals(refid)).forEach(sqlEle -> {
-                dealCRUD(root, sqlEle, sql);
-            });
-        });
+    /**
+     * 根据Mybatis的参数命名规则，将占位符中的属性路径对应到方法的参数，以及参数为JavaBean时的属性
+     * <p>
+     * 方法有多个参数或使用了@Param注解时，Mybatis将参数包装为Map，每个参数可以通过以下名称引用：
+     * <ul>
+     *     <li>@Param注解的value</li>
+     *     <li>没有@Param注解时，参数的实际名称（编译时使用了 {@code -parameters}），否则为 {@code arg0}、{@code arg1}...
+     *     IR中的参数名也可能来自调试信息，此时无法确定运行时使用哪个名称，因此两者都匹配</li>
+     *     <li>{@code param1}、{@code param2}...</li>
+     * </ul>
+     * 否则Mybatis直接使用唯一的参数。{@code _parameter} 总是代表整个参数对象，参数被包装时即为该Map，
+     * 因此 {@code _parameter.x} 与 {@code x} 等价。
+     */
+    private static Resolution resolvePlaceholder(String path, JMethod method) {
+        int n = method.getParamCount();
+        if (n == 0) {
+            return Resolution.NOT_PARAM;
+        }
+        String root = getRoot(path);
+        boolean wrapped = n > 1;
+        for (int i = 0; i < n && !wrapped; i++) {
+            wrapped = getParamAnnotationValue(method, i) != null;
+        }
+        if (wrapped && root.equals(PARAMETER)) {
+            return path.length() > root.length() && path.charAt(root.length()) == '.'
+                    ? resolvePlaceholder(path.substring(root.length() + 1), method)
+                    : Resolution.ALL_PARAMS;
+        }
+        for (int i = 0; i < n; i++) {
+            if (root.equals(getParamAnnotationValue(method, i))) {
+                return toSink(method, i, getFirstProperty(path));
+            }
+        }
+        if (!wrapped) {
+            // 只有一个参数且没有@Param注解时，Mybatis直接使用该参数
+            Type paramType = method.getParamType(0);
+            if (root.equals(PARAMETER)) {
+                return toSink(method, 0, getFirstProperty(path));
+            } else if (SINGLE_COLLECTION_NAMES.contains(root)) {
+                return toSink(method, 0, null);
+            } else if (WebEntryParamProvider.isJavaBean(paramType)) {
+                // 占位符是JavaBean的属性，包括从父类继承的属性
+                return toSink(method, 0, root);
+            } else {
+                return toSink(method, 0, null);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (getParamAnnotationValue(method, i) == null) {
+                if (root.equals(method.getParamName(i)) || root.equals("arg" + i)) {
+                    return toSink(method, i, getFirstProperty(path));
+                }
+            }
+        }
+        Matcher matcher = paramPattern.matcher(root);
+        if (matcher.find()) {
+            int index = Integer.parseInt(matcher.group(1)) - 1;
+            if (index >= 0 && index < n) {
+                return toSink(method, index, getFirstProperty(path));
+            }
+        }
+        return Resolution.UNKNOWN;
     }
 
-    private static void dealCRUD(Element root, Element element, StringBuilder sql) {
-        sql.append(element.getText().strip());
-        dealInclude(root, element, sql);
-        for (Iterator<Element> it = element.elementIterator(); it.hasNext(); ) {
-            dealCRUD(root, it.next(), sql);
+    /**
+     * @param property 参数为JavaBean时引用的属性，可以为 {@code null}
+     * @return 对应的参数或属性为基本类型时返回 {@link Resolution#NOT_PARAM}
+     */
+    private static Resolution toSink(JMethod method, int index, String property) {
+        Type paramType = method.getParamType(index);
+        if (!WebEntryParamProvider.isNotPrimitiveType(paramType)) {
+            return Resolution.NOT_PARAM;
         }
+        if (property != null && WebEntryParamProvider.isJavaBean(paramType)) {
+            JavaBeanInfo.Property p = JavaBeanInfo.of(((ClassType) paramType).getJClass())
+                    .getProperty(property);
+            if (p == null || !WebEntryParamProvider.isNotPrimitiveType(p.field().getType())) {
+                return Resolution.NOT_PARAM;
+            }
+            return new Resolution.Param(new MybatisSink(method, index, property));
+        }
+        return new Resolution.Param(new MybatisSink(method, index, null));
     }
 
-    public static List<MybatisSink> parseXml(InputStream inputStream) {
-        List<MybatisSink> sinks = new ArrayList<>();
+    private static String getParamAnnotationValue(JMethod method, int i) {
+        Annotation paramAnnotation = method.getParamAnnotation(i, "org.apache.ibatis.annotations.Param");
+        if (paramAnnotation == null || !paramAnnotation.hasElement("value")) {
+            return null;
+        }
+        String value = paramAnnotation.getElement("value").toString();
+        return value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")
+                ? value.substring(1, value.length() - 1) : value;
+    }
 
-        try {
-            Document document = new SAXReader().read(inputStream);
-            Element root = document.getRootElement();
-            Attribute namespaceAttr = root.attribute("namespace");
-            if (namespaceAttr != null) {
-                String mapperNamespace = namespaceAttr.getText();
-                JClass jclass = World.get().getClassHierarchy().getClass(mapperNamespace);
-                if (jclass != null) {
-                    for (Iterator<Element> it = root.elementIterator(); it.hasNext(); ) {
-                        Element element = it.next();
-                        if (element.getName().matches("(insert|update|delete|select)")) {
-                            String methodName = element.attribute("id").getText();
-                            JMethod jMethod = jclass.getDeclaredMethod(methodName);
-                            if (jMethod != null) {
-                                final StringBuilder sql = new StringBuilder();
-                                dealCRUD(root, element, sql);
-                                sinks.addAll(isSqli(sql.toString(), jMethod));
-                            }
-                        }
-                    }
+    /**
+     * 展开所有语句引用的sql片段，并根据语句中的占位符找出对应Mapper接口方法的sink
+     */
+    static List<MybatisSink> resolveSinks(List<MapperXmlParser.MapperXml> mappers) {
+        List<MybatisSink> sinks = new ArrayList<>();
+        MapperXmlParser.FragmentIndex fragments = new MapperXmlParser.FragmentIndex(mappers);
+        for (MapperXmlParser.MapperXml mapper : mappers) {
+            JClass jclass = World.get().getClassHierarchy().getClass(mapper.namespace());
+            if (jclass == null) {
+                continue;
+            }
+            for (MapperXmlParser.Statement statement : mapper.statements()) {
+                JMethod jMethod = jclass.getDeclaredMethod(statement.id());
+                if (jMethod != null) {
+                    sinks.addAll(isSqli(fragments.getPlaceholders(
+                            mapper.namespace(), statement.sql()), jMethod));
                 }
             }
-        } catch (Exception e) {
-            e.printStackTrace();
         }
         return sinks;
     }
 
+    /**
+     * 一个Mapper.xml的解析任务
+     *
+     * @param name 文件的位置，jar中的文件为 {@code jar路径!/条目名称}，用于报告解析失败的文件
+     * @param task 解析任务
+     */
+    private record MapperXmlParse(String name, Callable<MapperXmlParser.MapperXml> task) {
+    }
 
-    public static List<MybatisSink> dealMybatisXml() {
-
-        List<MybatisSink> sinks = new ArrayList<>();
+    /**
+     * 一个类路径条目的扫描结果
+     *
+     * @param digest 条目内容的摘要，无法计算时为 {@code null}
+     * @param cached 缓存命中时的解析结果，否则为 {@code null}
+     * @param parses  缓存未命中时，条目中每个Mapper.xml的解析任务
+     * @param archive 解析任务读取的jar，所有解析任务完成后关闭，条目不是jar时为 {@code null}
+     */
+    private record ClassPathScan(String digest, List<MapperXmlParser.MapperXml> cached,
+                                 List<MapperXmlParse> parses, ZipArchive archive) {
+    }
 
-        World.get().getOptions().getAppClassPath().forEach(appClassPath -> {
-            try {
-                if (appClassPath.endsWith(".jar")) {
-                    JarFile jarFile = new JarFile(appClassPath);
-                    Enumeration<JarEntry> entries = jarFile.entries();
-                    while (entries.hasMoreElements()) {
-                        JarEntry entry = entries.nextElement();
-                        if (entry.getName().endsWith("Mapper.xml") && !entry.isDirectory()) {
-                            InputStream inputStream = jarFile.getInputStream(entry);
-                            sinks.addAll(parseXml(inputStream));
+    /**
+     * 扫描应用类路径中的所有Mapper.xml并提取sink。
+     * <p>
+     * 每个类路径条目一个任务，负责计算条目的内容摘要，缓存命中时直接使用缓存的解析结果，
+     * 否则列出其中的Mapper.xml，每个Mapper.xml再一个解析任务，
+     * 解析完成后按摘要写入缓存。解析结果按类路径的顺序和条目名称的顺序合并，与并行执行的顺序无关。
+     *
+     * @param cacheDir 扫描结果缓存的目录，为 {@code null} 时不使用缓存
+     */
+    public static List<MybatisSink> dealMybatisXml(@Nullable Path cacheDir) {
+        List<String> appClassPaths = World.get().getOptions().getAppClassPath();
+        MapperScanCache cache = cacheDir == null ? null : new MapperScanCache(cacheDir);
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors());
+        List<ClassPathScan> scans = new ArrayList<>();
+        try {
+            List<Future<ClassPathScan>> futures = new ArrayList<>();
+            for (String appClassPath : appClassPaths) {
+                futures.add(executor.submit(() -> scanClassPath(appClassPath, cache)));
+            }
+            List<Callable<MapperXmlParser.MapperXml>> parses = new ArrayList<>();
+            for (int i = 0; i < futures.size(); ++i) {
+                try {
+                    ClassPathScan scan = futures.get(i).get();
+                    scans.add(scan);
+                    scan.parses().forEach(parse -> parses.add(parse.task()));
+                } catch (ExecutionException e) {
+                    logger.warn("Failed to scan mapper XMLs in {}", appClassPaths.get(i), e.getCause());
+                }
+            }
+            Iterator<Future<MapperXmlParser.MapperXml>> parsed = executor.invokeAll(parses).iterator();
+            List<MapperXmlParser.MapperXml> mappers = new ArrayList<>();
+            int reparsed = 0;
+            for (ClassPathScan scan : scans) {
+                if (scan.cached() != null) {
+                    mappers.addAll(scan.cached());
+                    continue;
+                }
+                List<MapperXmlParser.MapperXml> scanMappers = new ArrayList<>();
+                boolean complete = true;
+                for (MapperXmlParse parse : scan.parses()) {
+                    try {
+                        MapperXmlParser.MapperXml mapper = parsed.next().get();
+                        if (mapper != null) {
+                            scanMappers.add(mapper);
                         }
+                    } catch (ExecutionException e) {
+                        logger.warn("Failed to parse {}", parse.name(), e.getCause());
+                        complete = false;
                     }
-                } else {
-                    try (Stream<Path> paths = Files.walk(Paths.get(appClassPath))) {
-                        paths.filter(path -> Files.isRegularFile(path) && path.toString().endsWith("Mapper.xml")).forEach(path -> {
-                            try {
-                                InputStream inputStream = new FileInputStream(path.toFile());
-                                sinks.addAll(parseXml(inputStream));
-                            } catch (FileNotFoundException e) {
-                                e.printStackTrace();
-                            }
-                        });
+                }
+                // 有文件解析失败时不写入缓存，下次运行时重新解析并报告错误
+                if (cache != null && scan.digest() != null && complete) {
+                    cache.store(scan.digest(), scanMappers);
+                }
+                mappers.addAll(scanMappers);
+                ++reparsed;
+            }
+            logger.info("Scanned mapper XMLs in {} classpath entries, {} reparsed",
+                    scans.size(), reparsed);
+            // sql片段可以跨文件引用，因此在所有文件解析完成后再展开
+            return resolveSinks(mappers);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            executor.shutdownNow();
+            for (ClassPathScan scan : scans) {
+                if (scan.archive() != null) {
+                    try {
+                        scan.archive().close();
+                    } catch (IOException e) {
+                        logger.warn("Failed to close a mapper scan archive", e);
                     }
                 }
+            }
+        }
+    }
 
-            } catch (Exception e) {
-                e.printStackTrace();
+    private static ClassPathScan scanClassPath(String appClassPath,
+                                               @Nullable MapperScanCache cache) {
+        String digest = cache == null ? null : cache.digest(appClassPath);
+        if (digest != null) {
+            List<MapperXmlParser.MapperXml> cached = cache.load(digest);
+            if (cached != null) {
+                return new ClassPathScan(digest, cached, List.of(), null);
             }
-        });
-        return sinks;
+        }
+        List<MapperXmlParse> parses = new ArrayList<>();
+        try {
+            if (appClassPath.endsWith(".jar")) {
+                ZipArchive archive = ZipArchive.open(Path.of(appClassPath));
+                try {
+                    addMapperXmls(archive, appClassPath, parses);
+                } catch (IOException | RuntimeException e) {
+                    archive.close();
+                    throw e;
+                }
+                return new ClassPathScan(digest, null, parses, archive);
+            }
+            addMapperXmls(Paths.get(appClassPath), parses);
+            return new ClassPathScan(digest, null, parses, null);
+        } catch (IOException e) {
+            logger.warn("Failed to list mapper XMLs in {}", appClassPath, e);
+            // 列出文件失败时不写入缓存
+            return new ClassPathScan(null, null, List.of(), null);
+        }
+    }
+
+    /**
+     * 列出目录中的所有Mapper.xml，为每个文件添加一个解析任务，任务按文件名排序
+     */
+    private static void addMapperXmls(Path dir, List<MapperXmlParse> parses) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.filter(path -> Files.isRegularFile(path) && path.toString().endsWith("Mapper.xml"))
+                    .sorted()
+                    .forEach(path -> parses.add(new MapperXmlParse(path.toString(), () -> {
+                        try (InputStream inputStream = Files.newInputStream(path)) {
+                            return MapperXmlParser.parse(inputStream);
+                        }
+                    })));
+        }
+    }
+
+    /**
+     * 列出jar中的所有Mapper.xml，文件直接从jar中读取，对于Spring Boot的fat jar，
+     * 同时读取 {@code BOOT-INF/classes/} 下的文件以及 {@code BOOT-INF/lib/} 下嵌套的jar中的文件
+     *
+     * @param location jar的位置，嵌套的jar为外层jar的位置加上条目名称
+     */
+    private static void addMapperXmls(ZipArchive archive, String location,
+                                      List<MapperXmlParse> parses) throws IOException {
+        for (ZipArchive.Entry entry : archive.entries()) {
+            if (entry.isDirectory()) {
+                continue;
+            }
+            String name = entry.name();
+            if (name.endsWith("Mapper.xml")) {
+                parses.add(new MapperXmlParse(location + "!/" + name, () -> {
+                    try (InputStream inputStream = archive.getInputStream(entry)) {
+                        return MapperXmlParser.parse(inputStream);
+                    }
+                }));
+            } else if (name.startsWith(BOOT_INF_LIB) && name.endsWith(".jar")) {
+                addMapperXmls(archive.openNested(entry), location + "!/" + name, parses);
+            }
+        }
     }
 }
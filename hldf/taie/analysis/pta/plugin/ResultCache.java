@@ -0,0 +1,292 @@
+package hldf.taie.analysis.pta.plugin;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.Main;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 扫描结果缓存，对未发生变化的制品直接返回上一次的扫描结果而不再运行求解器。
+ * <p>
+ * 缓存键是以下内容的SHA-256摘要：
+ * <ul>
+ *     <li>缓存格式的版本 {@link #VERSION}，以及分析器本身的构建标识，
+ *     即 {@link ResultCache} 和 {@link Main} 所在的jar（或class目录）的内容摘要，
+ *     其中包括随分析器打包的所有资源，分析器更新后旧的缓存项自动失效</li>
+ *     <li>Tai-e参数（包括分析选项），输出目录除外</li>
+ *     <li>应用classpath和classpath中每个jar（或目录下每个文件）的内容</li>
+ *     <li>取值为文件的已知选项所引用的文件或目录的内容：
+ *     {@link #PATH_OPTIONS} 中的命令行选项，以及 {@link #PATH_ANALYSIS_OPTIONS} 中的分析选项，
+ *     例如污点配置，配置目录下的所有YAML会一并计入</li>
+ * </ul>
+ * 每个缓存项是一个目录，包含污点流 {@link #FLOWS_FILE} 以及污点流图等输出文件。
+ * 缓存项先写入临时目录，再原子地重命名为最终目录，因此并发扫描不会读到不完整的缓存项。
+ */
+public class ResultCache {
+
+    private static final Logger logger = LogManager.getLogger(ResultCache.class);
+
+    /**
+     * 缓存键和缓存项格式的版本，格式变化时旧的缓存项自动失效
+     */
+    private static final String VERSION = "result-cache 2";
+
+    private static final String FLOWS_FILE = "taint-flows.txt";
+
+    /**
+     * 需要随污点流一起缓存的输出文件
+     */
+    private static final List<String> OUTPUT_FILES = List.of(
+            "taint-flow-graph.dot", "tfg-visualizer-config.yml");
+
+    /**
+     * 取值为路径列表（以 {@link File#pathSeparator} 分隔）的Tai-e命令行选项
+     */
+    private static final Set<String> PATH_OPTIONS = Set.of(
+            "-cp", "--class-path", "-acp", "--app-class-path",
+            "--options-file", "-p", "--plan-file");
+
+    private static final Set<String> ANALYSIS_OPTIONS = Set.of("-a", "--analysis");
+
+    /**
+     * 取值为文件或目录的分析选项，目录下只计入YAML文件
+     */
+    private static final Set<String> PATH_ANALYSIS_OPTIONS = Set.of(
+            "taint-config", "reflection-log");
+
+    private static final String OUTPUT_DIR = "--output-dir";
+
+    /**
+     * 分析器的构建标识，首次使用时计算
+     */
+    @Nullable
+    private static volatile String buildId;
+
+    private final Path cacheDir;
+
+    public ResultCache(Path cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * 计算本次扫描的缓存键
+     *
+     * @param args 本次扫描的Tai-e参数，包括应用classpath
+     */
+    public String key(List<String> args) {
+        MessageDigest digest = newDigest();
+        digest.update(VERSION.getBytes(StandardCharsets.UTF_8));
+        digest.update(getBuildId().getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < args.size(); ++i) {
+            String arg = args.get(i);
+            if (arg.equals(OUTPUT_DIR)) {
+                ++i; // 输出目录不影响扫描结果
+                continue;
+            } else if (arg.startsWith(OUTPUT_DIR + "=")) {
+                continue;
+            }
+            digest.update(arg.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            // 选项的值是下一个参数，或以 --option=value 的形式给出
+            String option = arg;
+            String value = i + 1 < args.size() ? args.get(i + 1) : null;
+            int eq = arg.indexOf('=');
+            if (arg.startsWith("--") && eq > 0) {
+                option = arg.substring(0, eq);
+                value = arg.substring(eq + 1);
+            }
+            if (value == null) {
+                continue;
+            }
+            if (PATH_OPTIONS.contains(option)) {
+                updatePaths(digest, value, false);
+            } else if (ANALYSIS_OPTIONS.contains(option)) {
+                updateAnalysisOptions(digest, value);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * 缓存命中时，将缓存的输出文件恢复到 {@code outputDir}，并返回缓存的污点流；否则返回 {@code null}
+     */
+    public List<String> load(String key, Path outputDir) {
+        Path entry = cacheDir.resolve(key);
+        Path flows = entry.resolve(FLOWS_FILE);
+        if (!Files.isRegularFile(flows)) {
+            return null;
+        }
+        try {
+            Files.createDirectories(outputDir);
+            for (String name : OUTPUT_FILES) {
+                Path cached = entry.resolve(name);
+                if (Files.isRegularFile(cached)) {
+                    Files.copy(cached, outputDir.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            logger.info("Result cache hit: {}", key);
+            return Files.readAllLines(flows, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.warn("Failed to load result cache {}", entry, e);
+            return null;
+        }
+    }
+
+    /**
+     * 将扫描结果写入缓存，写入失败只记录日志，不影响扫描结果
+     */
+    public void store(String key, List<String> taintFlows, Path outputDir) {
+        Path entry = cacheDir.resolve(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(cacheDir);
+            temp = Files.createTempDirectory(cacheDir, key + ".tmp");
+            Files.write(temp.resolve(FLOWS_FILE), taintFlows, StandardCharsets.UTF_8);
+            for (String name : OUTPUT_FILES) {
+                Path output = outputDir.resolve(name);
+                if (Files.isRegularFile(output)) {
+                    Files.copy(output, temp.resolve(name));
+                }
+            }
+            Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
+            logger.info("Stored result cache: {}", key);
+        } catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+            // 其他扫描已经写入了相同的缓存项
+        } catch (AtomicMoveNotSupportedException e) {
+            logger.warn("Result cache {} does not support atomic move", cacheDir);
+        } catch (IOException e) {
+            logger.warn("Failed to store result cache {}", entry, e);
+        } finally {
+            if (temp != null) {
+                delete(temp);
+            }
+        }
+    }
+
+    /**
+     * 将以 {@link File#pathSeparator} 分隔的每个路径的内容加入摘要
+     */
+    private static void updatePaths(MessageDigest digest, String paths, boolean onlyYAML) {
+        for (String path : paths.split(File.pathSeparator)) {
+            if (!path.isBlank()) {
+                update(digest, Path.of(path), onlyYAML);
+            }
+        }
+    }
+
+    /**
+     * 将分析选项（如 {@code pta=cs:ci;taint-config:config/taint.yml}）中
+     * 取值为文件的选项所引用的文件内容加入摘要
+     */
+    private static void updateAnalysisOptions(MessageDigest digest, String analysis) {
+        int eq = analysis.indexOf('=');
+        for (String option : analysis.substring(eq + 1).split(";")) {
+            int colon = option.indexOf(':');
+            if (colon > 0 && PATH_ANALYSIS_OPTIONS.contains(option.substring(0, colon).strip())) {
+                update(digest, Path.of(option.substring(colon + 1).strip()), true);
+            }
+        }
+    }
+
+    /**
+     * @return 分析器的构建标识，
+     * 即 {@link ResultCache} 和 {@link Main} 所在的jar或class目录的内容摘要
+     */
+    static String getBuildId() {
+        String id = buildId;
+        if (id == null) {
+            MessageDigest digest = newDigest();
+            Stream.of(ResultCache.class, Main.class)
+                    .map(c -> c.getProtectionDomain().getCodeSource())
+                    .filter(Objects::nonNull)
+                    .map(source -> {
+                        try {
+                            return Path.of(source.getLocation().toURI());
+                        } catch (URISyntaxException | IllegalArgumentException e) {
+                            throw new IllegalStateException("Unknown code source " + source, e);
+                        }
+                    })
+                    .distinct()
+                    .forEach(path -> update(digest, path, false));
+            id = HexFormat.of().formatHex(digest.digest());
+            buildId = id;
+        }
+        return id;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 将文件内容，或目录下所有文件的相对路径和内容（按路径排序）加入摘要
+     *
+     * @param onlyYAML 为 {@code true} 时只计入目录下的YAML文件（即污点配置目录）
+     */
+    private static void update(MessageDigest digest, Path path, boolean onlyYAML) {
+        try {
+            if (Files.isRegularFile(path)) {
+                updateFile(digest, path);
+            } else if (Files.isDirectory(path)) {
+                try (Stream<Path> paths = Files.walk(path)) {
+                    List<Path> files = paths.filter(Files::isRegularFile)
+                            .filter(f -> !onlyYAML || f.toString().endsWith(".yml")
+                                    || f.toString().endsWith(".yaml"))
+                            .sorted()
+                            .toList();
+                    for (Path file : files) {
+                        digest.update(path.relativize(file).toString()
+                                .getBytes(StandardCharsets.UTF_8));
+                        updateFile(digest, file);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void updateFile(MessageDigest digest, Path file) throws IOException {
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+    }
+
+    private static void delete(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            logger.warn("Failed to delete {}", dir, e);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package hldf.taie.analysis.pta.plugin;
+
+import pascal.taie.analysis.pta.plugin.taint.Sink;
+import pascal.taie.analysis.pta.plugin.taint.TaintConfig;
+import pascal.taie.ir.exp.InvokeDynamic;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.MethodHandle;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于CHA调用图的sink可达性预分析。
+ * <p>
+ * 从所有入口函数出发，用CHA解析调用点构建调用图，然后从sink方法（污点配置中的sinks、
+ * Mybatis的sink方法以及@Mapper接口中的方法）反向遍历，得到所有可能到达sink的方法。
+ * 无法到达任何sink的入口函数（健康检查、静态页面、只读接口等）可以在求解器启动前被剔除。
+ * 反向遍历时同时记录每个方法到最近sink的调用距离，用于对入口函数排序。
+ * <p>
+ * 调用图包括普通调用、lambda和方法引用（根据 {@code LambdaMetafactory} 的实现方法句柄解析），
+ * 以及方法中的new、静态调用和静态字段访问所触发的类初始化方法 {@code <clinit>}。
+ * 其他无法解析的invokedynamic被保守地视为调用了sink。
+ * 反射、动态代理、本地方法回调等隐式调用不在调用图中，经由这些调用到达的sink无法被识别，
+ * 因此剔除入口函数是一种启发式优化，在这些情况下可能丢失污点流。
+ */
+class SinkReachability {
+
+    private final ClassHierarchy hierarchy;
+
+    /**
+     * 是否只分析应用代码，与求解器的 only-app 选项保持一致
+     */
+    private final boolean onlyApp;
+
+    private static final String LAMBDA_METAFACTORY = "java.lang.invoke.LambdaMetafactory";
+
+    private static final String STRING_CONCAT_FACTORY = "java.lang.invoke.StringConcatFactory";
+
+    private final Set<JMethod> sinkMethods = Sets.newSet();
+
+    /**
+     * 缓存每个方法引用的CHA解析结果
+     */
+    private final Map<MethodRef, Set<JMethod>> chaTargets = Maps.newMap();
+
+    /**
+     * 能够到达sink的方法，及其在CHA调用图上到最近sink的调用距离
+     */
+    private final Map<JMethod, Integer> distances = Maps.newMap();
+
+    SinkReachability(ClassHierarchy hierarchy, TaintConfig config, boolean onlyApp) {
+        this.hierarchy = hierarchy;
+        this.onlyApp = onlyApp;
+        config.sinks().stream().map(Sink::method).forEach(sinkMethods::add);
+        config.mybatisSinks().stream().map(MybatisSink::method).forEach(sinkMethods::add);
+    }
+
+    /**
+     * 计算给定入口函数中，哪些方法可以到达sink
+     */
+    void compute(Collection<JMethod> entries) {
+        MultiMap<JMethod, JMethod> callers = Maps.newMultiMap();
+        Set<JMethod> visited = Sets.newSet();
+        Set<JMethod> reachedSinks = Sets.newSet();
+        // 包含无法解析的invokedynamic的方法
+        Set<JMethod> unresolved = Sets.newSet();
+        Deque<JMethod> workList = new ArrayDeque<>(entries);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (!visited.add(method)) {
+                continue;
+            }
+            if (isSink(method)) {
+                reachedSinks.add(method);
+                continue;
+            }
+            if (method.isAbstract() || (onlyApp && !method.isApplication())) {
+                continue;
+            }
+            for (Stmt stmt : method.getIR()) {
+                Set<JMethod> callees = getCallees(stmt);
+                if (callees == null) {
+                    unresolved.add(method);
+                    continue;
+                }
+                for (JMethod callee : callees) {
+                    callers.put(callee, method);
+                    if (!visited.contains(callee)) {
+                        workList.add(callee);
+                    }
+                }
+            }
+        }
+        // 从sink出发反向广度优先遍历，第一次访问到某个方法时的层数即为其到sink的最短距离，
+        // 包含无法解析的invokedynamic的方法视为直接调用了sink
+        reachedSinks.forEach(sink -> distances.put(sink, 0));
+        workList.addAll(reachedSinks);
+        unresolved.forEach(method -> {
+            if (distances.putIfAbsent(method, 1) == null) {
+                workList.add(method);
+            }
+        });
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            int distance = distances.get(method);
+            for (JMethod caller : callers.get(method)) {
+                if (!distances.containsKey(caller)) {
+                    distances.put(caller, distance + 1);
+                    workList.add(caller);
+                }
+            }
+        }
+    }
+
+    boolean canReachSink(JMethod entry) {
+        return distances.containsKey(entry);
+    }
+
+    /**
+     * @return 方法到最近sink的调用距离，无法到达sink时返回 {@link Integer#MAX_VALUE}
+     */
+    int distanceToSink(JMethod method) {
+        return distances.getOrDefault(method, Integer.MAX_VALUE);
+    }
+
+    private boolean isSink(JMethod method) {
+        return sinkMethods.contains(method)
+                || AnnotationIndex.get().isAnnotated(method.getDeclaringClass(),
+                        ComponentType.MapperType.getName());
+    }
+
+    /**
+     * @return 语句调用的方法，包括其触发的类初始化方法；
+     * 语句包含无法解析的invokedynamic时返回 {@code null}
+     */
+    @Nullable
+    private Set<JMethod> getCallees(Stmt stmt) {
+        if (stmt instanceof Invoke invoke) {
+            if (invoke.getInvokeExp() instanceof InvokeDynamic indy) {
+                return resolve(indy);
+            }
+            Set<JMethod> callees = resolve(invoke.getMethodRef(),
+                    !invoke.isStatic() && !invoke.isSpecial());
+            if (invoke.isStatic()) {
+                return withClinits(callees, invoke.getMethodRef().getDeclaringClass());
+            }
+            return callees;
+        } else if (stmt instanceof New newStmt
+                && newStmt.getRValue().getType() instanceof ClassType classType) {
+            return withClinits(Set.of(), classType.getJClass());
+        } else if (stmt instanceof LoadField load && load.isStatic()) {
+            return withClinits(Set.of(), load.getFieldRef().getDeclaringClass());
+        } else if (stmt instanceof StoreField store && store.isStatic()) {
+            return withClinits(Set.of(), store.getFieldRef().getDeclaringClass());
+        }
+        return Set.of();
+    }
+
+    /**
+     * 解析lambda和方法引用的实现方法，字符串拼接不调用任何方法
+     *
+     * @return 实现方法，无法解析时返回 {@code null}
+     */
+    @Nullable
+    private Set<JMethod> resolve(InvokeDynamic indy) {
+        String bootstrapClass = indy.getBootstrapMethodRef().getDeclaringClass().getName();
+        if (bootstrapClass.equals(STRING_CONCAT_FACTORY)) {
+            return Set.of();
+        }
+        if (bootstrapClass.equals(LAMBDA_METAFACTORY)) {
+            List<Literal> args = indy.getBootstrapArgs();
+            if (args.size() > 1 && args.get(1) instanceof MethodHandle handle
+                    && handle.isMethodRef()) {
+                MethodRef ref = handle.getMethodRef();
+                JMethod impl = ref.resolveNullable();
+                if (impl != null) {
+                    // 实例方法的方法引用（如 obj::foo）在运行时按接收者的类型分派
+                    boolean isVirtual = !impl.isStatic() && !impl.isConstructor()
+                            && !impl.isPrivate();
+                    Set<JMethod> callees = resolve(ref, isVirtual);
+                    return impl.isStatic() || impl.isConstructor()
+                            ? withClinits(callees, impl.getDeclaringClass())
+                            : callees;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Set<JMethod> resolve(MethodRef ref, boolean isVirtual) {
+        if (!isVirtual) {
+            // 声明的方法本身，用于匹配接口中的sink方法和Mapper方法
+            JMethod declared = ref.resolveNullable();
+            return declared == null ? Set.of() : Set.of(declared);
+        }
+        return chaTargets.computeIfAbsent(ref, r -> {
+            Set<JMethod> targets = Sets.newHybridSet();
+            JMethod declared = r.resolveNullable();
+            if (declared != null) {
+                targets.add(declared);
+            }
+            for (JClass sub : hierarchy.getAllSubclassesOf(r.getDeclaringClass())) {
+                if (!sub.isAbstract()) {
+                    JMethod target = hierarchy.dispatch(sub, r);
+                    if (target != null) {
+                        targets.add(target);
+                    }
+                }
+            }
+            return targets;
+        });
+    }
+
+    /**
+     * @return {@code callees} 加上初始化 {@code jClass} 时执行的 {@code <clinit>}，包括其父类的
+     */
+    private Set<JMethod> withClinits(Set<JMethod> callees, @Nullable JClass jClass) {
+        Set<JMethod> result = null;
+        for (JClass c = jClass; c != null; c = c.getSuperClass()) {
+            JMethod clinit = c.getClinit();
+            if (clinit != null) {
+                if (result == null) {
+                    result = Sets.newHybridSet();
+                    result.addAll(callees);
+                }
+                result.add(clinit);
+            }
+        }
+        return result == null ? callees : result;
+    }
+}
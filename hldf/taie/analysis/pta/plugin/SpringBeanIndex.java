@@ -0,0 +1,183 @@
+package hldf.taie.analysis.pta.plugin;
+
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Spring的bean索引，在指针分析开始时构建一次，将依赖注入的解析变为查表。
+ * <p>
+ * 索引记录了所有组件类（@Service、@Component、@Repository和@Mapper），并按以下方式组织：
+ * <ul>
+ *     <li>类型：每个组件类登记在其自身以及所有父类、接口（包括间接的）之下</li>
+ *     <li>名称：@Service或@Component的value，缺省时为首字母小写的类名</li>
+ *     <li>限定符：标注了@Qualifier的类按其value登记</li>
+ * </ul>
+ */
+public class SpringBeanIndex {
+
+    /**
+     * 依赖注入解析得到的bean
+     *
+     * @param type        bean的类型
+     * @param isMapper    是否为Mybatis的Mapper接口
+     * @param isPrototype 是否声明了prototype作用域，即每个注入点得到一个新的实例
+     */
+    public record Bean(JClass type, boolean isMapper, boolean isPrototype) {
+    }
+
+    private static final String SCOPE = "org.springframework.context.annotation.Scope";
+
+    private static final String PROTOTYPE = "prototype";
+
+    private static final List<String> COMPONENT_ANNOTATIONS = List.of(
+            ComponentType.ServiceType.getName(),
+            ComponentType.ComponentType.getName(),
+            ComponentType.RepositoryType.getName(),
+            ComponentType.MapperType.getName());
+
+    private final ClassHierarchy hierarchy;
+
+    private final AnnotationIndex annotations = AnnotationIndex.get();
+
+    /**
+     * 类型到其所有组件子类的映射，列表按类层次结构中类的顺序排列
+     */
+    private final Map<JClass, List<JClass>> beansByType = Maps.newMap();
+
+    private final Map<String, List<JClass>> beansByName = Maps.newMap();
+
+    private final Map<String, List<JClass>> classesByQualifier = Maps.newMap();
+
+    private final Set<JClass> prototypes = Sets.newSet();
+
+    public SpringBeanIndex(ClassHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        String qualifier = DependencyInjectionType.QualifierType.getName();
+        hierarchy.allClasses().forEach(jClass -> {
+            if (COMPONENT_ANNOTATIONS.stream().anyMatch(a -> annotations.isAnnotated(jClass, a))) {
+                beansByName.computeIfAbsent(computeBeanName(jClass), n -> new ArrayList<>()).add(jClass);
+                superTypesOf(jClass).forEach(type ->
+                        beansByType.computeIfAbsent(type, t -> new ArrayList<>()).add(jClass));
+                String scope = annotations.getValue(jClass, SCOPE, "value");
+                if (scope == null) {
+                    scope = annotations.getValue(jClass, SCOPE, "scopeName");
+                }
+                if (PROTOTYPE.equals(scope)) {
+                    prototypes.add(jClass);
+                }
+            }
+            if (annotations.isAnnotated(jClass, qualifier)) {
+                String value = annotations.getValue(jClass, qualifier, "value");
+                if (value != null) {
+                    classesByQualifier.computeIfAbsent(value, v -> new ArrayList<>()).add(jClass);
+                }
+            }
+        });
+    }
+
+    /**
+     * 根据Spring的规则，查找注入到 {@code field} 的bean
+     * <p>
+     * 每种注解装配依赖注入对象的规则如下：
+     * 1. @Autowired 和 @Inject 两个注解的查找规则相同，先根据类型查找，再根据名称查找
+     * 2. @Resource 先根据名称查找，再根据类型查找
+     * <p>
+     * 在静态分析算法中，@Autowired @Inject @Resource 三个注解都可以按照先类型，后名称的规则进行搜索，并不会出现误差
+     *
+     * @return 注入的bean，{@code field} 不是依赖注入的字段或无法确定bean时返回 {@code null}
+     */
+    @Nullable
+    public Bean resolve(JField field) {
+        boolean isAutowired = annotations.isAnnotated(field, DependencyInjectionType.AutowiredType.getName())
+                || annotations.isAnnotated(field, DependencyInjectionType.InjectType.getName());
+        if (!isAutowired && !annotations.isAnnotated(field, DependencyInjectionType.ResourceType.getName())) {
+            return null;
+        }
+        JClass fieldClazz = hierarchy.getClass(field.getType().getName());
+        if (fieldClazz == null) {
+            return null;
+        }
+        // 处理@Qualifier注解
+        String qualifier = DependencyInjectionType.QualifierType.getName();
+        if (isAutowired && annotations.isAnnotated(field, qualifier)) {
+            String value = annotations.getValue(field, qualifier, "value");
+            if (value != null) {
+                for (JClass sub : classesByQualifier.getOrDefault(value, List.of())) {
+                    if (hierarchy.isSubclass(fieldClazz, sub)) {
+                        return bean(sub, false);
+                    }
+                }
+            }
+        }
+        List<JClass> componentSubs = beansByType.getOrDefault(fieldClazz, List.of());
+        List<JClass> specialSubs = componentSubs.stream()
+                .filter(jClass -> !jClass.isInterface() && !jClass.isAbstract())
+                .toList();
+        if (specialSubs.size() == 1) {
+            return bean(specialSubs.get(0), false);
+        } else if (componentSubs.size() == 1 && isMapper(componentSubs.get(0))) {
+            return bean(componentSubs.get(0), true);
+        }
+        String diName = annotations.getValue(field,
+                DependencyInjectionType.ResourceType.getName(), "name");
+        if (diName == null) {
+            diName = field.getName();
+        }
+        for (JClass sub : beansByName.getOrDefault(diName, List.of())) {
+            if (hierarchy.isSubclass(fieldClazz, sub)) {
+                return bean(sub, false);
+            }
+        }
+        return null;
+    }
+
+    private Bean bean(JClass jClass, boolean isMapper) {
+        return new Bean(jClass, isMapper, prototypes.contains(jClass));
+    }
+
+    private boolean isMapper(JClass jClass) {
+        return annotations.isAnnotated(jClass, ComponentType.MapperType.getName());
+    }
+
+    private String computeBeanName(JClass jClass) {
+        String name = annotations.getValue(jClass, ComponentType.ServiceType.getName(), "value");
+        if (name == null) {
+            name = annotations.getValue(jClass, ComponentType.ComponentType.getName(), "value");
+        }
+        if (name == null) {
+            String clazzName = jClass.getSimpleName();
+            name = clazzName.substring(0, 1).toLowerCase() + clazzName.substring(1);
+        }
+        return name;
+    }
+
+    /**
+     * @return {@code jClass} 自身以及其所有父类和接口（包括间接的）
+     */
+    private static Set<JClass> superTypesOf(JClass jClass) {
+        Set<JClass> result = Sets.newHybridSet();
+        Deque<JClass> workList = new ArrayDeque<>();
+        workList.add(jClass);
+        while (!workList.isEmpty()) {
+            JClass c = workList.poll();
+            if (result.add(c)) {
+                if (c.getSuperClass() != null) {
+                    workList.add(c.getSuperClass());
+                }
+                c.getInterfaces().forEach(workList::add);
+            }
+        }
+        return result;
+    }
+}
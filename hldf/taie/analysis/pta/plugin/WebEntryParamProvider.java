@@ -28,6 +28,8 @@ public class WebEntryParamProvider implements ParamProvider {
      */
     private static final int THIS_INDEX = -1;
 
+    private static final Descriptor WEB_ENTRY_PARAM_DESC = () -> "WebEntryParamObj";
+
     /**
      * Represents combination of a method and a parameter index.
      *
@@ -43,6 +45,19 @@ public class WebEntryParamProvider implements ParamProvider {
         }
     }
 
+    /**
+     * 共享模式下，所有入口函数中同一类型的this变量或形参共用的分配点
+     *
+     * @param type the type of the receiver or parameter
+     */
+    private record SharedParam(Type type) {
+
+        @Override
+        public String toString() {
+            return "SharedParam{" + type + '}';
+        }
+    }
+
     @Nullable
     private Obj thisObj;
 
@@ -52,6 +67,23 @@ public class WebEntryParamProvider implements ParamProvider {
 
     private MultiMap<Obj, Obj> arrayObjs;
 
+    private final JMethod method;
+
+    private final HeapModel heapModel;
+
+    /**
+     * 是否在所有入口函数之间按类型共享抽象对象
+     */
+    private final boolean shared;
+
+    private final int k;
+
+    /**
+     * 延迟模式下，记录尚未展开字段和数组元素的对象所在的层数；非延迟模式下为 {@code null}
+     */
+    @Nullable
+    private final Map<Obj, Integer> lazyLevels;
+
     /**
      * @param method    the entry method.
      * @param heapModel the model for generating mock objects.
@@ -68,16 +100,45 @@ public class WebEntryParamProvider implements ParamProvider {
      *                  k field/array accesses.
      */
     public WebEntryParamProvider(JMethod method, HeapModel heapModel, int k) {
-        generateObjs(method, heapModel, k);
+        this(method, heapModel, k, false);
     }
 
-    private void generateObjs(JMethod method, HeapModel heapModel, int k) {
+    /**
+     * @param lazy 为 {@code true} 时只创建this对象和形参对象，字段和数组元素对象
+     *             在求解过程中第一次被load时才通过 {@link #materializeField} 和
+     *             {@link #materializeArrayElem} 创建，仍然受k层的限制
+     */
+    public WebEntryParamProvider(JMethod method, HeapModel heapModel, int k, boolean lazy) {
+        this(method, heapModel, k, lazy, false);
+    }
+
+    /**
+     * @param shared 为 {@code true} 时，所有入口函数中同一类型的this变量和形参共用一棵抽象对象树，
+     *               抽象对象不再属于某个入口函数。污点源仍由SourceHandler按入口函数的形参分别创建，
+     *               因此污点流仍然归属到各自的入口函数
+     */
+    public WebEntryParamProvider(JMethod method, HeapModel heapModel, int k,
+                                 boolean lazy, boolean shared) {
+        this.method = method;
+        this.heapModel = heapModel;
+        this.shared = shared;
+        this.k = k;
+        this.lazyLevels = lazy ? Maps.newMap() : null;
+        generateObjs(lazy ? 0 : k);
+    }
+
+    /**
+     * @param depth 立即创建的字段和数组元素对象的层数
+     */
+    private void generateObjs(int depth) {
         Deque<Pair<Obj, Integer>> queue = new ArrayDeque<>();
         // generate this (receiver) object
         if (!method.isStatic() && !method.getDeclaringClass().isAbstract()) {
+            Type thisType = method.getDeclaringClass().getType();
             thisObj = heapModel.getMockObj(Descriptor.ENTRY_DESC,
-                    new WebEntryParamProvider.MethodParam(method, THIS_INDEX),
-                    method.getDeclaringClass().getType(), method);
+                    shared ? new SharedParam(thisType)
+                            : new WebEntryParamProvider.MethodParam(method, THIS_INDEX),
+                    thisType, getContainer());
             queue.add(new Pair<>(thisObj, 0));
         }
         // generate parameter objects
@@ -85,36 +146,35 @@ public class WebEntryParamProvider implements ParamProvider {
         for (int i = 0; i < method.getParamCount(); ++i) {
             Type paramType = method.getParamType(i);
             // 为web入口函数的所有形参列表创建抽象对象
-            paramObjs[i] = heapModel.getMockObj(() -> "WebEntryParamObj",
-                    new WebEntryParamProvider.MethodParam(method, i), paramType, method);
+            paramObjs[i] = heapModel.getMockObj(WEB_ENTRY_PARAM_DESC,
+                    shared ? new SharedParam(paramType)
+                            : new WebEntryParamProvider.MethodParam(method, i),
+                    paramType, getContainer());
             queue.add(new Pair<>(paramObjs[i], 0));
         }
         // generate k-level field and array objects by a level-order traversal
         fieldObjs = Maps.newTwoKeyMultiMap();
         arrayObjs = Maps.newMultiMap();
+        if (lazyLevels != null) {
+            queue.forEach(pair -> markLazy(pair.first(), pair.second()));
+        }
         while (!queue.isEmpty()) {
             Pair<Obj, Integer> pair = queue.pop();
             Obj base = pair.first();
             int level = pair.second();
-            if (level < k) {
+            if (level < depth) {
                 Type type = base.getType();
                 if (type instanceof ClassType cType) {
                     for (JField field : cType.getJClass().getDeclaredFields()) {
-                        Type fieldType = field.getType();
-                        if (isInstantiable(fieldType)) {
-                            Obj obj = heapModel.getMockObj(() -> "WebEntryParamObj",
-                                    base.getAllocation() + "." + field.getName(),
-                                    fieldType, method);
+                        Obj obj = mockField(base, field);
+                        if (obj != null) {
                             fieldObjs.put(base, field, obj);
                             queue.add(new Pair<>(obj, level + 1));
                         }
                     }
-                } else if (type instanceof ArrayType aType) {
-                    Type elemType = aType.elementType();
-                    if (isInstantiable(elemType)) {
-                        Obj elem = heapModel.getMockObj(() -> "WebEntryParamObj",
-                                base.getAllocation() + "[*]",
-                                elemType, method);
+                } else if (type instanceof ArrayType) {
+                    Obj elem = mockArrayElem(base);
+                    if (elem != null) {
                         arrayObjs.put(base, elem);
                         queue.add(new Pair<>(elem, level + 1));
                     }
@@ -123,6 +183,95 @@ public class WebEntryParamProvider implements ParamProvider {
         }
     }
 
+    @Nullable
+    private Obj mockField(Obj base, JField field) {
+        Type fieldType = field.getType();
+        if (isInstantiable(fieldType)) {
+            return heapModel.getMockObj(WEB_ENTRY_PARAM_DESC,
+                    base.getAllocation() + "." + field.getName(),
+                    fieldType, getContainer());
+        }
+        return null;
+    }
+
+    @Nullable
+    private Obj mockArrayElem(Obj array) {
+        Type elemType = ((ArrayType) array.getType()).elementType();
+        if (isInstantiable(elemType)) {
+            return heapModel.getMockObj(WEB_ENTRY_PARAM_DESC,
+                    array.getAllocation() + "[*]",
+                    elemType, getContainer());
+        }
+        return null;
+    }
+
+    /**
+     * 共享的抽象对象不属于任何入口函数
+     */
+    @Nullable
+    private JMethod getContainer() {
+        return shared ? null : method;
+    }
+
+    private void markLazy(Obj obj, int level) {
+        if (level < k) {
+            lazyLevels.putIfAbsent(obj, level);
+        }
+    }
+
+    /**
+     * @return 在延迟模式下，{@code obj} 的字段或数组元素是否还可以继续展开
+     */
+    public boolean isExpandable(Obj obj) {
+        return lazyLevels != null && lazyLevels.containsKey(obj);
+    }
+
+    /**
+     * @return 所有可以展开的对象，非延迟模式下为空
+     */
+    public Set<Obj> getExpandableObjs() {
+        return lazyLevels != null ? Collections.unmodifiableSet(lazyLevels.keySet()) : Set.of();
+    }
+
+    /**
+     * 延迟模式下，为 {@code base} 的字段 {@code field} 创建抽象对象。
+     * 与非延迟模式一致，只为 {@code base} 的类型中声明的字段创建对象。
+     * HeapModel会复用相同分配点的抽象对象，因此重复调用返回同一个对象。
+     *
+     * @return 字段指向的抽象对象，无法或无需创建时返回 {@code null}
+     */
+    @Nullable
+    public Obj materializeField(Obj base, JField field) {
+        Integer level = lazyLevels != null ? lazyLevels.get(base) : null;
+        if (level == null || !(base.getType() instanceof ClassType cType)
+                || !field.getDeclaringClass().equals(cType.getJClass())) {
+            return null;
+        }
+        Obj obj = mockField(base, field);
+        if (obj != null) {
+            markLazy(obj, level + 1);
+        }
+        return obj;
+    }
+
+    /**
+     * 延迟模式下，为数组对象 {@code array} 创建元素对象
+     *
+     * @return 数组元素的抽象对象，无法或无需创建时返回 {@code null}
+     */
+    @Nullable
+    public Obj materializeArrayElem(Obj array) {
+        Integer level = lazyLevels != null ? lazyLevels.get(array) : null;
+        if (level == null || !(array.getType() instanceof ArrayType)) {
+            return null;
+        }
+        Obj elem = mockArrayElem(array);
+        if (elem != null) {
+            markLazy(elem, level + 1);
+        }
+        return elem;
+    }
+
     public static boolean isInstantiable(Type type) {
         return (type instanceof ClassType cType && !cType.getJClass().isAbstract())
                 || type instanceof ArrayType;
@@ -150,36 +299,15 @@ public class WebEntryParamProvider implements ParamProvider {
     }
 
     public static boolean isJavaBean(Type type) {
-        if (!isJDKAPI(type) && type instanceof ClassType cType) {
-            Collection<JField> fields = cType.getJClass().getDeclaredFields();
-            for (JField field : fields) {
-                JMethod getter = getFieldGetter(cType, field);
-                JMethod setter = getFieldSetter(cType, field);
-                if (getter == null || setter == null) {
-                    return false;
-                }
-            }
-            return true;
-        }
-        return false;
+        return type instanceof ClassType cType && JavaBeanInfo.of(cType.getJClass()).isJavaBean();
     }
 
     public static JMethod getFieldGetter(ClassType baseType, JField jField) {
-        String fieldName = jField.getName();
-        JMethod jMethod = baseType.getJClass().getDeclaredMethod("get" + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1));
-        if (jMethod != null && jMethod.getParamCount() == 0) {
-            return jMethod;
-        }
-        return null;
+        return JavaBeanInfo.of(baseType.getJClass()).getGetter(jField.getName());
     }
 
     public static JMethod getFieldSetter(ClassType baseType, JField jField) {
-        String fieldName = jField.getName();
-        JMethod jMethod = baseType.getJClass().getDeclaredMethod("set" + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1));
-        if (jMethod != null && jMethod.getParamCount() == 1 && jMethod.getReturnType() instanceof VoidType) {
-            return jMethod;
-        }
-        return null;
+        return JavaBeanInfo.of(baseType.getJClass()).getSetter(jField.getName());
     }
 
     @Override
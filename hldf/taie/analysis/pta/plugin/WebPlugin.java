@@ -1,34 +1,94 @@
 package hldf.taie.analysis.pta.plugin;
 
-import org.dom4j.Document;
-import org.dom4j.Element;
-import org.dom4j.io.SAXReader;
-import pascal.taie.Main;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
-import pascal.taie.analysis.pta.core.solver.DeclaredParamProvider;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.core.solver.EntryPoint;
 import pascal.taie.analysis.pta.core.solver.Solver;
 import pascal.taie.analysis.pta.plugin.Plugin;
+import pascal.taie.analysis.pta.plugin.taint.TaintConfig;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.LoadField;
 import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
-import pascal.taie.language.type.ClassType;
-import pascal.taie.util.collection.Sets;
-
-import java.beans.JavaBean;
-import java.io.InputStream;
-import java.net.JarURLConnection;
-import java.net.URL;
-import java.util.Enumeration;
-import java.util.Iterator;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.List;
-import java.util.Set;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
+import java.util.Map;
+import java.util.regex.Pattern;
 
 public class WebPlugin implements Plugin {
 
+    private static final Logger logger = LogManager.getLogger(WebPlugin.class);
+
+    /**
+     * 是否在求解器启动前剔除无法到达sink的入口函数
+     */
+    private static final String PRUNE_ENTRIES = "prune-entries";
+
+    private static final String PRUNED_ENTRIES_FILE = "pruned-entry-points.txt";
+
+    static final Pattern MAPPING_ANNOTATION = Pattern.compile(
+            "org.springframework.web.bind.annotation.\\w+Mapping");
+
+    /**
+     * 每批加入求解器的入口函数数量，为0时在启动时一次性加入所有入口函数
+     */
+    private static final String ENTRY_WAVE_SIZE = "entry-wave-size";
+
+    /**
+     * 逗号分隔的路由通配符，只分析路由被include且未被exclude的入口函数，如 /api/admin/**，
+     * 无法确定路由的入口函数总是被分析
+     */
+    private static final String INCLUDE_ROUTES = "include-routes";
+
+    private static final String EXCLUDE_ROUTES = "exclude-routes";
+
+    private static final String ROUTES_FILE = "web-routes.txt";
+
+    /**
+     * 是否延迟创建入口函数形参的字段和数组元素对象
+     */
+    private static final String LAZY_PARAM_MOCKS = "lazy-param-mocks";
+
+    /**
+     * 是否在所有入口函数之间按类型共享形参的抽象对象
+     */
+    private static final String SHARE_PARAM_MOCKS = "share-param-mocks";
+
     private Solver solver;
 
+    /**
+     * 尚未加入求解器的入口函数
+     */
+    private final Deque<JMethod> pendingEntries = new ArrayDeque<>();
+
+    private int waveSize;
+
+    private boolean lazyParamMocks;
+
+    private boolean shareParamMocks;
+
+    /**
+     * 延迟模式下，可以继续展开的抽象对象及创建它的ParamProvider
+     */
+    private final Map<Obj, WebEntryParamProvider> expandableObjs = Maps.newMap();
+
     @Override
     public void setSolver(Solver solver) {
         this.solver = solver;
@@ -36,87 +96,209 @@ public class WebPlugin implements Plugin {
 
     @Override
     public void onStart() {
-        // 将web类的方法添加到入口函数
-        World.get().getClassHierarchy().applicationClasses()
+        // 并行地对应用类进行分类，每个类只遍历一次并运行所有匹配的检测器，
+        // 收集到的入口函数按签名排序以保证顺序是确定的
+        EntryPointDetectors detectors = new EntryPointDetectors();
+        long start = System.currentTimeMillis();
+        List<JMethod> entries = World.get().getClassHierarchy().applicationClasses()
+                .parallel()
                 .filter(jClass -> !jClass.isAbstract() && !jClass.isInterface())
-                .forEach((jClass -> {
-                    if (WebPlugin.isSpringMVController(jClass)) {
-                        jClass.getDeclaredMethods().stream().filter(WebPlugin::isSpringMVCRequest)
-                                .forEach(jMethod -> {
-                                    // 将@Controller中的方法添加为入口点，并为所有形参创建抽象对象
-                                    solver.addEntryPoint(new EntryPoint(jMethod,
-                                            new WebEntryParamProvider(jMethod, solver.getHeapModel(), 3)));
-                                });
-                    }
-                    else if (isServlet(jClass)) {
-                        jClass.getDeclaredMethods().stream().filter(this::isServletRequest)
-                                .forEach(jMethod -> {
-                                    // 将Servlet中的doGet等方法添加为入口点，并为所有形参创建抽象对象
-                                    solver.addEntryPoint(new EntryPoint(jMethod,
-                                            new WebEntryParamProvider(jMethod, solver.getHeapModel(), 3)));
-                                });
-                    } else if (isJSP(jClass)) {
-                        jClass.getDeclaredMethods().stream().filter(this::isJSPRequest)
-                                .forEach(jMethod -> {
-                                    // 将JSP类中的_jspService方法添加为入口点，并为所有形参创建抽象对象
-                                    solver.addEntryPoint(new EntryPoint(jMethod,
-                                            new WebEntryParamProvider(jMethod, solver.getHeapModel(), 3)));
-                                });
-                    } else if (isStruts2Action(jClass)) {
-                        jClass.getDeclaredMethods().stream().filter(this::isServletExecute)
-                                .forEach(jMethod -> {
-                                    // 将Struts2类中的execute方法添加为入口点
-                                    solver.addEntryPoint(new EntryPoint(jMethod,
-                                            new WebEntryParamProvider(jMethod, solver.getHeapModel(), 3)));
-                                });
-                    }
-                }));
+                .flatMap(detectors::detect)
+                .sorted(Comparator.comparing(JMethod::getSignature))
+                .toList();
+        logger.info("Detected {} entry point(s) in {}ms", entries.size(),
+                System.currentTimeMillis() - start);
+        detectors.report();
+        entries = filterRoutes(entries);
+        waveSize = getInt(ENTRY_WAVE_SIZE);
+        lazyParamMocks = isEnabled(LAZY_PARAM_MOCKS);
+        shareParamMocks = isEnabled(SHARE_PARAM_MOCKS);
+        if (isEnabled(PRUNE_ENTRIES) || waveSize > 0) {
+            SinkReachability reachability = computeReachability(entries);
+            if (reachability != null) {
+                if (isEnabled(PRUNE_ENTRIES)) {
+                    entries = pruneEntries(entries, reachability);
+                }
+                if (waveSize > 0) {
+                    // 离sink越近的入口函数越先加入求解器，排序是稳定的，距离相同时保持签名顺序
+                    entries = entries.stream()
+                            .sorted(Comparator.comparingInt(reachability::distanceToSink))
+                            .toList();
+                }
+            }
+        }
+        pendingEntries.addAll(entries);
+        admitEntries(waveSize > 0 ? waveSize : pendingEntries.size());
     }
 
-    private boolean isServletExecute(JMethod jMethod) {
-        return jMethod.getName().equals("execute");
+    /**
+     * 工作表清空后再加入下一批入口函数，求解器会继续处理新加入的工作，
+     * 所有入口函数都加入并处理完之后，其他插件的 {@link #onBeforeFinish()} 才会被调用
+     */
+    @Override
+    public void onFixedPoint() {
+        if (!pendingEntries.isEmpty()) {
+            admitEntries(waveSize);
+        }
     }
 
-    private boolean isStruts2Action(JClass jClass) {
-        JClass superClazz = jClass.getSuperClass();
-        if (superClazz != null) {
-            return superClazz.getName().equals("com.opensymphony.xwork2.ActionContext");
+    /**
+     * 延迟模式下，当入口函数形参的抽象对象流向存在字段或数组load的变量时，才创建对应的字段或数组元素对象
+     */
+    @Override
+    public void onNewPointsToSet(CSVar csVar, PointsToSet pts) {
+        Var var = csVar.getVar();
+        if (expandableObjs.isEmpty()
+                || (var.getLoadFields().isEmpty() && var.getLoadArrays().isEmpty())) {
+            return;
         }
-        return false;
+        CSManager csManager = solver.getCSManager();
+        Context entryCtx = solver.getContextSelector().getEmptyContext();
+        pts.forEach(csObj -> {
+            WebEntryParamProvider provider = expandableObjs.get(csObj.getObject());
+            if (provider == null) {
+                return;
+            }
+            for (LoadField load : var.getLoadFields()) {
+                JField field = load.getFieldRef().resolveNullable();
+                Obj obj = field != null ? provider.materializeField(csObj.getObject(), field) : null;
+                if (obj != null) {
+                    addExpandable(provider, obj);
+                    solver.addPointsTo(csManager.getInstanceField(csObj, field), entryCtx, obj);
+                }
+            }
+            if (!var.getLoadArrays().isEmpty()) {
+                Obj elem = provider.materializeArrayElem(csObj.getObject());
+                if (elem != null) {
+                    addExpandable(provider, elem);
+                    solver.addPointsTo(csManager.getArrayIndex(csObj), entryCtx, elem);
+                }
+            }
+        });
     }
 
-    private boolean isJSPRequest(JMethod jMethod) {
-        return jMethod.getName().equals("_jspService");
+    private void addExpandable(WebEntryParamProvider provider, Obj obj) {
+        if (provider.isExpandable(obj)) {
+            expandableObjs.putIfAbsent(obj, provider);
+        }
     }
 
-    private boolean isJSP(JClass jClass) {
-        JClass superClazz = jClass.getSuperClass();
-        if (superClazz != null) {
-            return superClazz.getName().equals("org.apache.jasper.runtime.HttpJspBase") && jClass.getSimpleName().endsWith("_jsp");
+    /**
+     * 将至多 {@code n} 个待处理的入口函数加入求解器
+     */
+    private void admitEntries(int n) {
+        // 为入口函数的所有形参创建抽象对象。HeapModel不是线程安全的，并且抽象对象的编号
+        // 依赖创建顺序，因此这里按入口函数的顺序串行创建
+        for (int i = 0; i < n && !pendingEntries.isEmpty(); ++i) {
+            JMethod jMethod = pendingEntries.poll();
+            WebEntryParamProvider provider = new WebEntryParamProvider(
+                    jMethod, solver.getHeapModel(), 3, lazyParamMocks, shareParamMocks);
+            provider.getExpandableObjs().forEach(obj -> expandableObjs.putIfAbsent(obj, provider));
+            solver.addEntryPoint(new EntryPoint(jMethod, provider));
+        }
+        if (waveSize > 0) {
+            logger.info("Admitted a wave of entry points, {} pending", pendingEntries.size());
         }
-        return false;
     }
 
-    private boolean isServletRequest(JMethod jMethod) {
-        return jMethod.getName().matches("do(Get|Head|Post|Put|Delete|Options|Trace|)") ||
-                jMethod.getName().equals("service");
+    /**
+     * 根据路由通配符筛选入口函数，并将路由表写入输出目录的 {@link #ROUTES_FILE} 中
+     */
+    private List<JMethod> filterRoutes(List<JMethod> entries) {
+        WebRoutes webRoutes = new WebRoutes(getString(INCLUDE_ROUTES), getString(EXCLUDE_ROUTES));
+        List<JMethod> included = new ArrayList<>();
+        List<String> table = new ArrayList<>();
+        for (JMethod entry : entries) {
+            List<WebRoutes.Route> routes = WebRoutes.routesOf(entry);
+            boolean isIncluded = webRoutes.isIncluded(routes);
+            if (isIncluded) {
+                included.add(entry);
+            }
+            String status = isIncluded ? "included" : "excluded";
+            if (routes.isEmpty() && webRoutes.isScoped()) {
+                logger.warn("Cannot determine the route of {}, keep it regardless of route scope",
+                        entry.getSignature());
+            }
+            if (routes.isEmpty()) {
+                table.add(String.join("\t", status, "?", entry.getSignature()));
+            } else {
+                routes.forEach(route -> table.add(String.join("\t",
+                        status, route.toString(), entry.getSignature())));
+            }
+        }
+        if (webRoutes.isScoped()) {
+            logger.info("Route scope includes {} of {} entry points",
+                    included.size(), entries.size());
+        }
+        File outputDir = World.get().getOptions().getOutputDir();
+        try {
+            Files.write(new File(outputDir, ROUTES_FILE).toPath(), table);
+        } catch (IOException e) {
+            logger.warn("Failed to write route table", e);
+        }
+        return included;
     }
 
-    private boolean isServlet(JClass jClass) {
-        JClass superClazz = jClass.getSuperClass();
-        if (superClazz != null) {
-            return superClazz.getName().equals("javax.servlet.http.HttpServlet");
+    /**
+     * 在CHA调用图上计算入口函数的sink可达性，缺少污点配置时返回 {@code null}
+     */
+    @Nullable
+    private SinkReachability computeReachability(List<JMethod> entries) {
+        String configKey = TaintConfig.class.getName();
+        if (!World.get().hasResult(configKey)) {
+            logger.warn("Taint config is absent, skip sink reachability of entry points");
+            return null;
         }
-        return false;
+        TaintConfig config = World.get().getResult(configKey);
+        SinkReachability reachability = new SinkReachability(solver.getHierarchy(),
+                config, solver.getOptions().getBoolean("only-app"));
+        reachability.compute(entries);
+        return reachability;
+    }
+
+    /**
+     * 剔除无法到达任何sink的入口函数，被剔除的入口函数记录到输出目录的 {@link #PRUNED_ENTRIES_FILE} 中
+     */
+    private List<JMethod> pruneEntries(List<JMethod> entries, SinkReachability reachability) {
+        List<JMethod> kept = new ArrayList<>();
+        List<JMethod> pruned = new ArrayList<>();
+        entries.forEach(entry -> (reachability.canReachSink(entry) ? kept : pruned).add(entry));
+        logger.info("Pruned {} of {} entry points that cannot reach any sink",
+                pruned.size(), entries.size());
+        File outputDir = World.get().getOptions().getOutputDir();
+        try {
+            Files.write(new File(outputDir, PRUNED_ENTRIES_FILE).toPath(),
+                    pruned.stream().map(JMethod::getSignature).toList());
+        } catch (IOException e) {
+            logger.warn("Failed to write pruned entry points", e);
+        }
+        return kept;
+    }
+
+    private boolean isEnabled(String option) {
+        AnalysisOptions options = solver.getOptions();
+        return options.has(option) && options.getBoolean(option);
+    }
+
+    @Nullable
+    private String getString(String option) {
+        AnalysisOptions options = solver.getOptions();
+        return options.has(option) ? options.getString(option) : null;
+    }
+
+    private int getInt(String option) {
+        AnalysisOptions options = solver.getOptions();
+        return options.has(option) ? options.getInt(option) : 0;
     }
 
     public static boolean isSpringMVCRequest(JMethod jMethod) {
-        return jMethod.getAnnotations().stream().anyMatch(annotation -> annotation.getType().matches("org.springframework.web.bind.annotation.\\w+Mapping"));
+        return AnnotationIndex.get().getMethods(MAPPING_ANNOTATION).contains(jMethod);
     }
 
     public static boolean isSpringMVController(JClass jClass) {
-        return jClass.getAnnotations().stream().anyMatch(annotation -> annotation.getType().equals(ComponentType.ControllerType.getName())
-                || annotation.getType().equals(ComponentType.RestControllerType.getName()));
+        AnnotationIndex index = AnnotationIndex.get();
+        return index.isAnnotated(jClass, ComponentType.ControllerType.getName())
+                || index.isAnnotated(jClass, ComponentType.RestControllerType.getName());
     }
 
 
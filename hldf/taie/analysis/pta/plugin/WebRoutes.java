@@ -0,0 +1,226 @@
+package hldf.taie.analysis.pta.plugin;
+
+import pascal.taie.language.annotation.Annotated;
+import pascal.taie.language.annotation.Annotation;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 计算web入口函数对应的路由，并根据路由的include/exclude通配符筛选入口函数。
+ * <p>
+ * Spring MVC的路由由类上的 {@code @RequestMapping} 与方法上的 {@code @*Mapping} 的
+ * {@code value}/{@code path} 组合而成，JAX-RS的路由由类上和方法上的 {@code @Path} 组合而成，
+ * Servlet的路由取自 {@code @WebServlet}（javax或jakarta）的 {@code value}/{@code urlPatterns}。
+ * gRPC、JSP、Struts2以及在web.xml中配置的Servlet等无法从字节码确定路由。通配符采用Ant风格：{@code **} 匹配任意多级路径，
+ * {@code *} 匹配一级路径中的任意字符，{@code ?} 匹配一个字符。
+ */
+class WebRoutes {
+
+    private static final String REQUEST_MAPPING = "org.springframework.web.bind.annotation.RequestMapping";
+
+    private static final List<String> WEB_SERVLETS = List.of(
+            "javax.servlet.annotation.WebServlet", "jakarta.servlet.annotation.WebServlet");
+
+    private static final List<String> JAX_RS_PATHS = List.of(
+            "javax.ws.rs.Path", "jakarta.ws.rs.Path");
+
+    private static final List<String> JAX_RS_PACKAGES = List.of("javax.ws.rs.", "jakarta.ws.rs.");
+
+    private static final Set<String> JAX_RS_HTTP_METHODS = Set.of(
+            "GET", "POST", "PUT", "DELETE", "HEAD", "OPTIONS", "PATCH");
+
+    /**
+     * 路由及其HTTP方法，{@code *} 表示任意HTTP方法
+     */
+    record Route(String httpMethod, String path) {
+
+        @Override
+        public String toString() {
+            return httpMethod + " " + path;
+        }
+    }
+
+    private final List<Pattern> includes;
+
+    private final List<Pattern> excludes;
+
+    /**
+     * @param includes 逗号分隔的include通配符，为空时包含所有路由
+     * @param excludes 逗号分隔的exclude通配符
+     */
+    WebRoutes(@Nullable String includes, @Nullable String excludes) {
+        this.includes = compileGlobs(includes);
+        this.excludes = compileGlobs(excludes);
+    }
+
+    /**
+     * @return 是否指定了include或exclude通配符
+     */
+    boolean isScoped() {
+        return !includes.isEmpty() || !excludes.isEmpty();
+    }
+
+    /**
+     * 入口函数的某个路由被include通配符匹配且未被exclude通配符匹配时，该入口函数被包含。
+     * 无法确定路由的入口函数（如gRPC、JSP、Struts2以及在web.xml中配置的Servlet）总是被包含，
+     * 以免因为缺少路由而丢失污点流。
+     */
+    boolean isIncluded(List<Route> routes) {
+        if (routes.isEmpty()) {
+            return true;
+        }
+        return routes.stream().map(Route::path).anyMatch(path ->
+                (includes.isEmpty() || matchesAny(includes, path)) && !matchesAny(excludes, path));
+    }
+
+    /**
+     * 计算入口函数的所有路由
+     */
+    static List<Route> routesOf(JMethod method) {
+        JClass jClass = method.getDeclaringClass();
+        List<Route> routes = new ArrayList<>();
+        if (WebPlugin.isSpringMVController(jClass)) {
+            List<String> prefixes = paths(jClass, REQUEST_MAPPING);
+            method.getAnnotations().stream()
+                    .map(Annotation::getType)
+                    .filter(type -> WebPlugin.MAPPING_ANNOTATION.matcher(type).matches())
+                    .forEach(mapping -> {
+                        List<String> httpMethods = httpMethods(method, mapping);
+                        for (String prefix : prefixes) {
+                            for (String path : paths(method, mapping)) {
+                                for (String httpMethod : httpMethods) {
+                                    routes.add(new Route(httpMethod, join(prefix, path)));
+                                }
+                            }
+                        }
+                    });
+        } else if (findAnnotation(jClass, JAX_RS_PATHS) != null
+                || findAnnotation(method, JAX_RS_PATHS) != null) {
+            String classPath = findAnnotation(jClass, JAX_RS_PATHS);
+            String methodPath = findAnnotation(method, JAX_RS_PATHS);
+            List<String> prefixes = classPath == null ? List.of("") : paths(jClass, classPath);
+            List<String> paths = methodPath == null ? List.of("") : paths(method, methodPath);
+            List<String> httpMethods = jaxRsHttpMethods(method);
+            for (String prefix : prefixes) {
+                for (String path : paths) {
+                    for (String httpMethod : httpMethods) {
+                        routes.add(new Route(httpMethod, join(prefix, path)));
+                    }
+                }
+            }
+        } else {
+            String webServlet = findAnnotation(jClass, WEB_SERVLETS);
+            if (webServlet != null) {
+                paths(jClass, webServlet).forEach(path ->
+                        routes.add(new Route("*", join("", path))));
+            }
+        }
+        return routes;
+    }
+
+    /**
+     * @return {@code types} 中第一个标注在 {@code annotated} 上的注解，都没有时返回 {@code null}
+     */
+    @Nullable
+    private static String findAnnotation(Annotated annotated, List<String> types) {
+        return types.stream().filter(annotated::hasAnnotation).findFirst().orElse(null);
+    }
+
+    /**
+     * JAX-RS方法上的 {@code @GET}、{@code @POST} 等注解，
+     * 没有这类注解的方法是子资源定位器，可以处理任意HTTP方法
+     */
+    private static List<String> jaxRsHttpMethods(JMethod method) {
+        List<String> methods = method.getAnnotations().stream()
+                .map(Annotation::getType)
+                .filter(type -> JAX_RS_PACKAGES.stream().anyMatch(type::startsWith))
+                .map(type -> type.substring(type.lastIndexOf('.') + 1))
+                .filter(JAX_RS_HTTP_METHODS::contains)
+                .toList();
+        return methods.isEmpty() ? List.of("*") : methods;
+    }
+
+    /**
+     * 从注解的 {@code value}、{@code path} 或 {@code urlPatterns} 中取出路径，
+     * 均不存在（包括没有该注解）时返回空路径
+     */
+    private static List<String> paths(Annotated annotated, String type) {
+        AnnotationIndex index = AnnotationIndex.get();
+        List<String> paths = new ArrayList<>();
+        for (String name : List.of("value", "path", "urlPatterns")) {
+            paths.addAll(index.getValues(annotated, type, name));
+        }
+        return paths.isEmpty() ? List.of("") : paths;
+    }
+
+    private static List<String> httpMethods(JMethod method, String type) {
+        String simpleName = type.substring(type.lastIndexOf('.') + 1);
+        if (!type.equals(REQUEST_MAPPING)) {
+            // GetMapping -> GET
+            return List.of(simpleName.substring(0, simpleName.length() - "Mapping".length())
+                    .toUpperCase());
+        }
+        List<String> methods = AnnotationIndex.get().getValues(method, type, "method");
+        return methods.isEmpty() ? List.of("*") : methods;
+    }
+
+    private static String join(String prefix, String path) {
+        String route = "/" + prefix + "/" + path;
+        route = route.replaceAll("/+", "/");
+        return route.length() > 1 && route.endsWith("/")
+                ? route.substring(0, route.length() - 1) : route;
+    }
+
+    private static List<Pattern> compileGlobs(@Nullable String globs) {
+        if (globs == null || globs.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(globs.split(","))
+                .map(String::strip)
+                .filter(glob -> !glob.isEmpty())
+                .map(WebRoutes::compileGlob)
+                .toList();
+    }
+
+    /**
+     * 将Ant风格的通配符转换为正则表达式，结尾的 {@code /**} 同时匹配其父路径本身
+     */
+    private static Pattern compileGlob(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < glob.length(); ++i) {
+            char c = glob.charAt(i);
+            if (c == '*') {
+                if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                    ++i;
+                    if (regex.length() > 0 && regex.charAt(regex.length() - 1) == '/') {
+                        // /** 匹配零级或多级路径
+                        regex.setLength(regex.length() - 1);
+                        regex.append("(/.*)?");
+                    } else {
+                        regex.append(".*");
+                    }
+                } else {
+                    regex.append("[^/]*");
+                }
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else if (c == '/') {
+                regex.append('/');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static boolean matchesAny(List<Pattern> patterns, String path) {
+        return patterns.stream().anyMatch(pattern -> pattern.matcher(path).matches());
+    }
+}
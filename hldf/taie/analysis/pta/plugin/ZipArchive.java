@@ -0,0 +1,306 @@
+package hldf.taie.analysis.pta.plugin;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 只读的zip归档，按需从文件中读取中央目录和条目，支持不解压到磁盘而读取嵌套的jar。
+ * <p>
+ * Spring Boot的fat jar将依赖以不压缩（STORED）的方式存放在 {@code BOOT-INF/lib/} 下，
+ * 这类嵌套的jar直接读取外层文件中的一个区间，不复制数据；压缩存放的嵌套jar则解压到内存中。
+ * 嵌套的归档共享外层归档的文件，关闭外层归档后不能再使用。
+ * 不使用内存映射：映射只能在被垃圾回收时释放，扫描大量jar时会长时间占用地址空间和文件句柄。
+ * 不支持ZIP64格式，以及大于2GB的文件。
+ */
+class ZipArchive implements Closeable {
+
+    private static final int END_SIGNATURE = 0x06054b50;
+
+    private static final int CENTRAL_SIGNATURE = 0x02014b50;
+
+    private static final int LOCAL_SIGNATURE = 0x04034b50;
+
+    private static final int END_SIZE = 22;
+
+    private static final int LOCAL_HEADER_SIZE = 30;
+
+    private static final int CENTRAL_HEADER_SIZE = 46;
+
+    private static final int MAX_COMMENT_SIZE = 0xffff;
+
+    private static final int STORED = 0;
+
+    private static final int DEFLATED = 8;
+
+    /**
+     * zip中的一个条目
+     *
+     * @param name              条目名称
+     * @param method            压缩方法
+     * @param compressedSize    压缩后的大小
+     * @param size              解压后的大小
+     * @param localHeaderOffset 本地文件头在归档中的偏移
+     */
+    record Entry(String name, int method, int compressedSize, int size,
+                 int localHeaderOffset) {
+
+        boolean isDirectory() {
+            return name.endsWith("/");
+        }
+    }
+
+    /**
+     * 归档所在的文件，解压到内存中的归档为 {@code null}
+     */
+    private final FileChannel channel;
+
+    /**
+     * 归档在文件中的起始偏移
+     */
+    private final long base;
+
+    /**
+     * 解压到内存中的归档的内容，否则为 {@code null}
+     */
+    private final ByteBuffer buffer;
+
+    private final int size;
+
+    /**
+     * 关闭时是否关闭 {@link #channel}，嵌套的归档不持有文件
+     */
+    private final boolean ownsChannel;
+
+    /**
+     * 按名称排序的条目
+     */
+    private final List<Entry> entries;
+
+    private ZipArchive(FileChannel channel, long base, int size,
+                       ByteBuffer buffer, boolean ownsChannel) throws IOException {
+        this.channel = channel;
+        this.base = base;
+        this.size = size;
+        this.buffer = buffer;
+        this.ownsChannel = ownsChannel;
+        this.entries = readEntries();
+    }
+
+    /**
+     * 打开 {@code path}，使用完毕后需要调用 {@link #close()} 关闭文件
+     */
+    static ZipArchive open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " is too large");
+            }
+            return new ZipArchive(channel, 0, (int) channel.size(), null, true);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    List<Entry> entries() {
+        return entries;
+    }
+
+    /**
+     * @return 条目内容的输入流
+     */
+    InputStream getInputStream(Entry entry) throws IOException {
+        return entry.method() == STORED
+                ? new ByteBufferInputStream(read(getDataOffset(entry), entry.compressedSize()))
+                : new ByteArrayInputStream(inflate(entry));
+    }
+
+    /**
+     * 打开嵌套在该归档中的jar，不压缩的jar与该归档共享文件
+     */
+    ZipArchive openNested(Entry entry) throws IOException {
+        if (entry.method() != STORED) {
+            byte[] data = inflate(entry);
+            return new ZipArchive(null, 0, data.length, ByteBuffer.wrap(data), false);
+        }
+        int offset = getDataOffset(entry);
+        return buffer != null
+                ? new ZipArchive(null, 0, entry.compressedSize(),
+                        buffer.slice(offset, entry.compressedSize()), false)
+                : new ZipArchive(channel, base + offset, entry.compressedSize(), null, false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (ownsChannel) {
+            channel.close();
+        }
+    }
+
+    /**
+     * @return 条目（压缩后）数据在归档中的偏移
+     */
+    private int getDataOffset(Entry entry) throws IOException {
+        int offset = entry.localHeaderOffset();
+        ByteBuffer header = read(offset, LOCAL_HEADER_SIZE);
+        if (header.getInt(0) != LOCAL_SIGNATURE) {
+            throw new IOException("Invalid local header of " + entry.name());
+        }
+        return offset + LOCAL_HEADER_SIZE
+                + getUnsignedShort(header, 26) + getUnsignedShort(header, 28);
+    }
+
+    private byte[] inflate(Entry entry) throws IOException {
+        if (entry.method() != DEFLATED) {
+            throw new IOException("Unsupported compression method "
+                    + entry.method() + " of " + entry.name());
+        }
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(read(getDataOffset(entry), entry.compressedSize()));
+            byte[] result = new byte[entry.size()];
+            int n = 0;
+            while (n < result.length) {
+                int len = inflater.inflate(result, n, result.length - n);
+                if (len == 0 && (inflater.finished() || inflater.needsInput()
+                        || inflater.needsDictionary())) {
+                    throw new IOException("Truncated entry " + entry.name());
+                }
+                n += len;
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new IOException("Invalid compressed data of " + entry.name(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private List<Entry> readEntries() throws IOException {
+        int tailSize = Math.min(size, END_SIZE + MAX_COMMENT_SIZE);
+        ByteBuffer tail = read(size - tailSize, tailSize);
+        int end = findEnd(tail);
+        int count = getUnsignedShort(tail, end + 10);
+        long directorySize = getUnsignedInt(tail, end + 12);
+        long offset = getUnsignedInt(tail, end + 16);
+        if (count == 0xffff || directorySize > Integer.MAX_VALUE
+                || offset > Integer.MAX_VALUE) {
+            throw new IOException("ZIP64 archives are not supported");
+        }
+        ByteBuffer directory = read((int) offset, (int) directorySize);
+        List<Entry> entries = new ArrayList<>(count);
+        int pos = 0;
+        for (int i = 0; i < count; ++i) {
+            if (pos + CENTRAL_HEADER_SIZE > directory.limit()
+                    || directory.getInt(pos) != CENTRAL_SIGNATURE) {
+                throw new IOException("Invalid central directory");
+            }
+            long compressedSize = getUnsignedInt(directory, pos + 20);
+            long size = getUnsignedInt(directory, pos + 24);
+            long localHeaderOffset = getUnsignedInt(directory, pos + 42);
+            if (compressedSize > Integer.MAX_VALUE || size > Integer.MAX_VALUE
+                    || localHeaderOffset > Integer.MAX_VALUE) {
+                throw new IOException("ZIP64 archives are not supported");
+            }
+            int nameLength = getUnsignedShort(directory, pos + 28);
+            byte[] name = new byte[nameLength];
+            directory.get(pos + CENTRAL_HEADER_SIZE, name);
+            entries.add(new Entry(new String(name, StandardCharsets.UTF_8),
+                    getUnsignedShort(directory, pos + 10), (int) compressedSize, (int) size,
+                    (int) localHeaderOffset));
+            pos += CENTRAL_HEADER_SIZE + nameLength
+                    + getUnsignedShort(directory, pos + 30) + getUnsignedShort(directory, pos + 32);
+        }
+        entries.sort(Comparator.comparing(Entry::name));
+        return List.copyOf(entries);
+    }
+
+    /**
+     * @param tail 归档末尾的内容
+     * @return 中央目录结束记录在 {@code tail} 中的偏移，该记录之后可能有不超过64KB的注释
+     */
+    private static int findEnd(ByteBuffer tail) throws IOException {
+        for (int pos = tail.limit() - END_SIZE; pos >= 0; --pos) {
+            if (tail.getInt(pos) == END_SIGNATURE) {
+                return pos;
+            }
+        }
+        throw new IOException("Not a zip archive");
+    }
+
+    /**
+     * 读取归档中 {@code [offset, offset + length)} 区间的内容。
+     * 使用按位置的读取，不改变文件的当前位置，因此可以被多个线程同时调用
+     */
+    private ByteBuffer read(int offset, int length) throws IOException {
+        if (offset < 0 || length < 0 || offset > size - length) {
+            throw new IOException("Truncated archive");
+        }
+        if (buffer != null) {
+            return buffer.slice(offset, length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        ByteBuffer result = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (result.hasRemaining()) {
+            if (channel.read(result, base + offset + result.position()) < 0) {
+                throw new IOException("Truncated archive");
+            }
+        }
+        return result.flip();
+    }
+
+    private static int getUnsignedShort(ByteBuffer buffer, int index) {
+        return buffer.getShort(index) & 0xffff;
+    }
+
+    private static long getUnsignedInt(ByteBuffer buffer, int index) {
+        return buffer.getInt(index) & 0xffffffffL;
+    }
+
+    /**
+     * 读取 {@link ByteBuffer} 剩余内容的输入流
+     */
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -22,8 +22,7 @@
 
 package pascal.taie.analysis.pta.core.solver;
 
-import hldf.taie.analysis.pta.plugin.ComponentType;
-import hldf.taie.analysis.pta.plugin.DependencyInjectionType;
+import hldf.taie.analysis.pta.plugin.SpringBeanIndex;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
@@ -83,6 +82,7 @@ import pascal.taie.language.type.*;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.Sets;
 
+import java.io.File;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -103,11 +103,32 @@ public class DefaultSolver implements Solver {
      */
     private static final Descriptor MULTI_ARRAY_DESC = () -> "MultiArrayObj";
 
+    /**
+     * Descriptors for objects injected by Spring dependency injection.
+     */
+    private static final Descriptor DI_DESC = () -> "DependencyInjectionObj";
+
+    private static final Descriptor DI_MAPPER_DESC = () -> "DependencyInjectionMapperObj";
+
     /**
      * Number that represents unlimited elapsed time.
      */
     private static final long UNLIMITED = -1;
 
+    /**
+     * Option for the path of solver event log.
+     *
+     * @see SolverEventLog
+     */
+    private static final String EVENT_LOG = "event-log";
+
+    /**
+     * Option for sharing one injected object per Spring bean class across
+     * all injection points, as Spring beans are singletons by default.
+     * Beans declaring prototype scope still get one object per injection point.
+     */
+    private static final String SINGLETON_BEANS = "singleton-beans";
+
     private final AnalysisOptions options;
 
     private final HeapModel heapModel;
@@ -163,8 +184,38 @@ public class DefaultSolver implements Solver {
 
     private StmtProcessor stmtProcessor;
 
+    /**
+     * Index of Spring beans for resolving dependency injection.
+     */
+    private SpringBeanIndex beanIndex;
+
+    private boolean singletonBeans;
+
+    /**
+     * Memoized results of dependency injection resolution. Fields that are
+     * not injection points are mapped to {@code null}.
+     */
+    private Map<JField, Injection> injections;
+
     private PointerAnalysisResult result;
 
+    /**
+     * Log of solver events, which is {@code null} if event log is disabled.
+     */
+    private SolverEventLog eventLog;
+
+    /**
+     * Nesting depth of plugin callbacks being timed for event log.
+     */
+    private int pluginDepth;
+
+    /**
+     * Total time (in nanoseconds) spent in outermost plugin callbacks,
+     * which is subtracted from the time of work list entries so that
+     * the times in event log do not overlap.
+     */
+    private long pluginNanos;
+
     @SuppressWarnings("unchecked")
     public DefaultSolver(AnalysisOptions options, HeapModel heapModel,
                          ContextSelector contextSelector, CSManager csManager) {
@@ -247,8 +298,15 @@ public class DefaultSolver implements Solver {
      */
     @Override
     public void solve() {
-        initialize();
-        analyze();
+        try {
+            initialize();
+            analyze();
+        } finally {
+            if (eventLog != null) {
+                eventLog.close();
+                eventLog = null;
+            }
+        }
     }
 
     /**
@@ -262,7 +320,17 @@ public class DefaultSolver implements Solver {
         initializedClasses = Sets.newSet();
         ignoredMethods = Sets.newSet();
         stmtProcessor = new StmtProcessor();
+        beanIndex = new SpringBeanIndex(hierarchy);
+        singletonBeans = options.has(SINGLETON_BEANS) && options.getBoolean(SINGLETON_BEANS);
+        injections = Maps.newMap();
         isTimeout = false;
+        if (options.has(EVENT_LOG) && options.getString(EVENT_LOG) != null) {
+            File logFile = new File(options.getString(EVENT_LOG));
+            logger.info("Writing solver event log to {}", logFile.getAbsolutePath());
+            eventLog = new SolverEventLog(logFile);
+        }
+        pluginDepth = 0;
+        pluginNanos = 0;
         if (timeLimit != UNLIMITED) {
             timeLimiter = new TimeLimiter(timeLimit);
             timeLimiter.countDown();
@@ -313,6 +381,8 @@ public class DefaultSolver implements Solver {
             while (!workList.isEmpty() && !isTimeout) {
                 WorkList.Entry entry = workList.pollEntry();
                 if (entry instanceof WorkList.PointerEntry pEntry) {
+                    long start = now();
+                    long nestedStart = pluginNanos;
                     Pointer p = pEntry.pointer();
                     PointsToSet pts = pEntry.pointsToSet();
                     PointsToSet diff = propagate(p, pts);
@@ -322,13 +392,31 @@ public class DefaultSolver implements Solver {
                         processArrayStore(v, diff);
                         processArrayLoad(v, diff);
                         processCall(v, diff);
+                        long pluginStart = beginPlugin();
                         plugin.onNewPointsToSet(v, diff);
+                        endPlugin("onNewPointsToSet", pluginStart);
+                    }
+                    if (eventLog != null) {
+                        eventLog.pointerEntry(p, pts.size(), diff.size(),
+                                now() - start - (pluginNanos - nestedStart));
                     }
                 } else if (entry instanceof WorkList.CallEdgeEntry eEntry) {
                     processCallEdge(eEntry.edge());
                 }
             }
+            if (workList.isEmpty()) {
+                // plugins may feed more work at the fixed point, in which case
+                // solving continues before any plugin sees the final result
+                long pluginStart = beginPlugin();
+                plugin.onFixedPoint();
+                endPlugin("onFixedPoint", pluginStart);
+                if (!workList.isEmpty()) {
+                    continue;
+                }
+            }
+            long pluginStart = beginPlugin();
             plugin.onBeforeFinish();
+            endPlugin("onBeforeFinish", pluginStart);
         }
         if (!workList.isEmpty() && isTimeout) {
             logger.warn("Pointer analysis stops early as it reaches time limit ({} seconds)," +
@@ -336,9 +424,54 @@ public class DefaultSolver implements Solver {
         } else if (timeLimiter != null) { // finish normally but time limiter is still running
             timeLimiter.stop();
         }
+        logger.info("Dependency injection (singleton-beans={}): {} injection point(s)," +
+                        " {} injected object(s)", singletonBeans,
+                injections.values().stream().filter(Objects::nonNull).count(),
+                injections.values().stream().filter(Objects::nonNull)
+                        .map(Injection::obj).distinct().count());
+        if (logger.isDebugEnabled()) {
+            // counting walks the whole pointer flow graph, thus only for debugging
+            logger.debug("Pointer flow graph: {} edge(s)", countPFGEdges());
+        }
         plugin.onFinish();
     }
 
+    private long countPFGEdges() {
+        return pointerFlowGraph.getNodes().stream()
+                .mapToLong(p -> pointerFlowGraph.getOutEdgesOf(p).size())
+                .sum();
+    }
+
+    /**
+     * @return current time in nanoseconds if event log is enabled, otherwise 0.
+     */
+    private long now() {
+        return eventLog != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Starts timing a plugin callback.
+     *
+     * @return start time of the callback, see {@link #now()}.
+     */
+    private long beginPlugin() {
+        ++pluginDepth;
+        return now();
+    }
+
+    /**
+     * Finishes timing a plugin callback. Callbacks triggered inside
+     * another callback (e.g., onNewMethod for an entry point added
+     * in onBeforeFinish) are attributed to the outermost one.
+     */
+    private void endPlugin(String callback, long start) {
+        if (--pluginDepth == 0 && eventLog != null) {
+            long nanos = System.nanoTime() - start;
+            pluginNanos += nanos;
+            eventLog.plugin(callback, nanos);
+        }
+    }
+
     /**
      * Propagates pointsToSet to pt(pointer) and its PFG successors,
      * returns the difference set of pointsToSet and pt(pointer).
@@ -480,7 +613,9 @@ public class DefaultSolver implements Solver {
                         recvObj.getObject().getType(), callSite);
                 // 处理Mybatis的接口函数调用
                 if (callee == null && recvObj.getObject() instanceof MockObj mockObj && mockObj.getDescriptor().string().equals("DependencyInjectionMapperObj")) {
+                    long pluginStart = beginPlugin();
                     plugin.onCallMybatisMethod(recvObj, callSite);
+                    endPlugin("onCallMybatisMethod", pluginStart);
                     callee = callSite.getMethodRef().resolve();
                 }
                 if (callee != null) {
@@ -498,14 +633,19 @@ public class DefaultSolver implements Solver {
                                 recvObj);
                     }
                 } else {
+                    long pluginStart = beginPlugin();
                     plugin.onUnresolvedCall(recvObj, context, callSite);
+                    endPlugin("onUnresolvedCall", pluginStart);
                 }
             });
         }
     }
 
     private void processCallEdge(Edge<CSCallSite, CSMethod> edge) {
-        if (callGraph.addEdge(edge)) {
+        long start = now();
+        long nestedStart = pluginNanos;
+        boolean isNew = callGraph.addEdge(edge);
+        if (isNew) {
             // process new call edge
             CSMethod csCallee = edge.getCallee();
             addCSMethod(csCallee);
@@ -538,7 +678,14 @@ public class DefaultSolver implements Solver {
                     }
                 }
             }
+            long pluginStart = beginPlugin();
             plugin.onNewCallEdge(edge);
+            endPlugin("onNewCallEdge", pluginStart);
+        }
+        if (eventLog != null) {
+            eventLog.callEdgeEntry(edge.getCallSite().getCallSite().getContainer(),
+                    edge.getCallee().getMethod(), isNew,
+                    now() - start - (pluginNanos - nestedStart));
         }
     }
 
@@ -552,82 +699,53 @@ public class DefaultSolver implements Solver {
      */
     private void processNewMethod(JMethod method) {
         if (reachableMethods.add(method)) {
+            if (eventLog != null) {
+                eventLog.newMethod(method);
+            }
+            long pluginStart = beginPlugin();
             plugin.onNewMethod(method);
             method.getIR().forEach(stmt -> plugin.onNewStmt(stmt, method));
+            endPlugin("onNewMethod", pluginStart);
         }
     }
 
     /**
      * 根据Spring的规则，查找依赖注入对象的实际类型，并返回抽象对象
+     * <p>
+     * 开启singleton-beans时，单例bean的抽象对象以bean的类作为分配点，在所有注入点之间共享；
+     * 否则以注入的字段作为分配点，每个注入点一个抽象对象
+     * <p>
+     * 每个字段只解析一次，不是注入点的字段同样缓存其结果
      *
-     * 每种注解装配依赖注入对象的规则如下：
-     * 1. @Autowired 和 @Inject 两个注解的查找规则相同，先根据类型查找，再根据名称查找
-     * 2. @Resource 先根据名称查找，再根据类型查找
-     *
-     * 在静态分析算法中，@Autowired @Inject @Resource 三个注解都可以按照先类型，后名称的规则进行搜索，并不会出现误差
+     * @return 注入的对象，{@code field} 不是注入点时返回 {@code null}
      */
-    private Obj isDI(JField field) {
-        if (!field.hasAnnotation(DependencyInjectionType.AutowiredType.getName()) &&
-                !field.hasAnnotation(DependencyInjectionType.InjectType.getName()) &&
-                !field.hasAnnotation(DependencyInjectionType.ResourceType.getName())) {
-            return null;
-        }
-
-        JClass fieldClazz = hierarchy.getClass(field.getType().getName());
-        String fieldName = field.getName();
-
-        // 处理@Qualifier注解
-        if (field.hasAnnotation(DependencyInjectionType.QualifierType.getName()) &&
-                (field.hasAnnotation(DependencyInjectionType.AutowiredType.getName()) || field.hasAnnotation(DependencyInjectionType.InjectType.getName()))) {
-            Collection<JClass> subs = hierarchy.getAllSubclassesOf(fieldClazz);
-            String fieldQualifierValue = field.getAnnotation(DependencyInjectionType.QualifierType.getName()).getElement("value").toString();
-            for (JClass sub : subs) {
-                if (sub.hasAnnotation(DependencyInjectionType.QualifierType.getName())) {
-                    String clazzQualifierValue = sub.getAnnotation(DependencyInjectionType.QualifierType.getName()).getElement("value").toString();
-                    if(fieldQualifierValue.equals(clazzQualifierValue)) {
-                        return heapModel.getMockObj(() -> "DependencyInjectionObj", field.getRef(), sub.getType());
-                    }
-                }
-            }
+    private Injection isDI(JField field) {
+        if (injections.containsKey(field)) {
+            return injections.get(field);
         }
+        Injection injection = resolveDI(field);
+        injections.put(field, injection);
+        return injection;
+    }
 
-        Collection<JClass> subs = hierarchy.getAllSubclassesOf(fieldClazz);
-        List<JClass> componentSubs = subs.stream().filter(jClass -> jClass.hasAnnotation(ComponentType.ServiceType.getName()) ||
-                jClass.hasAnnotation(ComponentType.ComponentType.getName()) ||
-                jClass.hasAnnotation(ComponentType.RepositoryType.getName()) ||
-                jClass.hasAnnotation(ComponentType.MapperType.getName())).toList();
-        List<JClass> specialSubs = componentSubs.stream().filter(jClass -> !jClass.isInterface() && !jClass.isAbstract()).toList();
-        if (specialSubs.size() == 1) {
-            return heapModel.getMockObj(() -> "DependencyInjectionObj", field.getRef(), specialSubs.get(0).getType());
-        } else if(componentSubs.size() == 1 && componentSubs.get(0).hasAnnotation(ComponentType.MapperType.getName())) {
-            return heapModel.getMockObj(() -> "DependencyInjectionMapperObj", field.getRef(), componentSubs.get(0).getType());
-        } else {
-            String diName = field.hasAnnotation(DependencyInjectionType.ResourceType.getName()) && field.getAnnotation(DependencyInjectionType.ResourceType.getName()).hasElement("name") ? field.getAnnotation(DependencyInjectionType.ResourceType.getName()).getElement("name").toString() : null;
-            if (diName == null) {
-                diName = fieldName;
-            } else {
-                diName = diName.substring(1, diName.length() - 1);
-            }
-            for (JClass sub : componentSubs) {
-                String clazzName = sub.getSimpleName();
-                String componentName = sub.hasAnnotation(ComponentType.ServiceType.getName()) && sub.getAnnotation(ComponentType.ServiceType.getName()).hasElement("value") ? sub.getAnnotation(ComponentType.ServiceType.getName()).getElement("value").toString() : null;
-                if (componentName == null) {
-                    componentName = sub.hasAnnotation(ComponentType.ComponentType.getName()) && sub.getAnnotation(ComponentType.ComponentType.getName()).hasElement("value") ? sub.getAnnotation(ComponentType.ComponentType.getName()).getElement("value").toString() : null;
-                    if (componentName == null) {
-                        componentName = clazzName.substring(0, 1).toLowerCase() + clazzName.substring(1);
-                    } else {
-                        componentName = componentName.substring(1, componentName.length() - 1);
-                    }
-                } else {
-                    componentName = componentName.substring(1, componentName.length() - 1);
-                }
-                if (componentName.equals(diName)) {
-                    return heapModel.getMockObj(() -> "DependencyInjectionObj", field.getRef(), sub.getType());
-                }
-            }
+    private Injection resolveDI(JField field) {
+        SpringBeanIndex.Bean bean = beanIndex.resolve(field);
+        if (bean == null) {
+            return null;
         }
+        Descriptor desc = bean.isMapper() ? DI_MAPPER_DESC : DI_DESC;
+        boolean isSingleton = singletonBeans && !bean.isPrototype();
+        Object alloc = isSingleton ? bean.type() : field.getRef();
+        return new Injection(heapModel.getMockObj(desc, alloc, bean.type().getType()), isSingleton);
+    }
 
-        return null;
+    /**
+     * 注入点注入的对象
+     *
+     * @param obj         注入的抽象对象
+     * @param isSingleton 是否为所有注入点共享的单例bean对象，单例bean对象不区分堆上下文
+     */
+    private record Injection(Obj obj, boolean isSingleton) {
     }
 
     private class StmtProcessor {
@@ -795,10 +913,13 @@ public class DefaultSolver implements Solver {
                     CSVar to = csManager.getCSVar(context, stmt.getLValue());
                     addPFGEdge(sfield, to, FlowKind.STATIC_LOAD);
                 } else {
-                    Obj obj = isDI(field);
-                    if (obj != null) {
-                        Context heapContext = contextSelector.selectHeapContext(csMethod, obj);
-                        addVarPointsTo(context, stmt.getLValue(), heapContext, obj);
+                    Injection injection = isDI(field);
+                    if (injection != null) {
+                        // 单例bean的抽象对象不区分堆上下文
+                        Context heapContext = injection.isSingleton()
+                                ? contextSelector.getEmptyContext()
+                                : contextSelector.selectHeapContext(csMethod, injection.obj());
+                        addVarPointsTo(context, stmt.getLValue(), heapContext, injection.obj());
                     }
                 }
                 return null;
@@ -875,6 +996,9 @@ public class DefaultSolver implements Solver {
                            Transfer transfer) {
         PointerFlowEdge edge = pointerFlowGraph.getOrAddEdge(kind, source, target);
         if (edge != null && edge.addTransfer(transfer)) {
+            if (eventLog != null) {
+                eventLog.pfgEdge(kind, source, target);
+            }
             PointsToSet targetSet = transfer.apply(edge, getPointsToSetOf(source));
             if (!targetSet.isEmpty()) {
                 addPointsTo(target, targetSet);
@@ -935,7 +1059,9 @@ public class DefaultSolver implements Solver {
             }
             processNewMethod(method);
             addStmts(csMethod, method.getIR().getStmts());
+            long pluginStart = beginPlugin();
             plugin.onNewCSMethod(csMethod);
+            endPlugin("onNewCSMethod", pluginStart);
         }
     }
 
@@ -0,0 +1,196 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.graph.flowgraph.FlowKind;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compact binary log of solver events. The log contains no program
+ * information other than method signatures, so it can be shared and
+ * replayed by {@link SolverEventReplayer} to rebuild timing and hot-spot
+ * profiles without the analyzed bytecode.
+ * <p>
+ * The log is a GZIP stream which starts with {@link #MAGIC} and
+ * {@link #VERSION}, followed by records. Each record is a tag byte
+ * followed by unsigned LEB128 varints. Strings are interned: the first
+ * occurrence of a string emits a {@link #DEFINE} record, and later
+ * records refer to it by its id (0 means "none"). Ids are assigned in
+ * order of first occurrence, thus the same solver run always produces
+ * the same event sequence; only the recorded times vary.
+ * <p>
+ * Recorded times do not overlap: the time of a work list entry excludes
+ * the plugin callbacks it triggers, which are recorded by their own
+ * {@link #PLUGIN} records, and a callback triggered inside another
+ * callback is attributed to the outermost one. Thus the times of all
+ * records add up to the total solving time.
+ */
+class SolverEventLog implements AutoCloseable {
+
+    static final int MAGIC = 0x54414945;
+
+    static final int VERSION = 2;
+
+    /**
+     * DEFINE id string
+     */
+    static final byte DEFINE = 0;
+
+    /**
+     * POINTER_ENTRY pointer method pts-size diff-size nanos
+     */
+    static final byte POINTER_ENTRY = 1;
+
+    /**
+     * CALL_EDGE_ENTRY caller callee is-new nanos
+     */
+    static final byte CALL_EDGE_ENTRY = 2;
+
+    /**
+     * PFG_EDGE flow-kind source target
+     */
+    static final byte PFG_EDGE = 3;
+
+    /**
+     * PLUGIN callback nanos
+     */
+    static final byte PLUGIN = 4;
+
+    /**
+     * NEW_METHOD method
+     */
+    static final byte NEW_METHOD = 5;
+
+    static final byte END = 6;
+
+    private final DataOutputStream out;
+
+    private final Map<String, Integer> ids = Maps.newMap();
+
+    SolverEventLog(File file) {
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(file.toPath()))));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void pointerEntry(Pointer pointer, int ptsSize, int diffSize, long nanos) {
+        int method = pointer instanceof CSVar csVar
+                ? idOf(csVar.getVar().getMethod()) : 0;
+        write(POINTER_ENTRY, pointer.getIndex(), method, ptsSize, diffSize, nanos);
+    }
+
+    void callEdgeEntry(JMethod caller, JMethod callee, boolean isNew, long nanos) {
+        write(CALL_EDGE_ENTRY, idOf(caller), idOf(callee), isNew ? 1 : 0, nanos);
+    }
+
+    void pfgEdge(FlowKind kind, Pointer source, Pointer target) {
+        write(PFG_EDGE, kind.ordinal(), source.getIndex(), target.getIndex());
+    }
+
+    void plugin(String callback, long nanos) {
+        write(PLUGIN, idOf(callback), nanos);
+    }
+
+    void newMethod(JMethod method) {
+        write(NEW_METHOD, idOf(method));
+    }
+
+    private int idOf(JMethod method) {
+        return idOf(method.getSignature());
+    }
+
+    private int idOf(String s) {
+        Integer id = ids.get(s);
+        if (id == null) {
+            id = ids.size() + 1;
+            ids.put(s, id);
+            try {
+                out.writeByte(DEFINE);
+                writeVarLong(id);
+                out.writeUTF(s);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return id;
+    }
+
+    private void write(byte tag, long... values) {
+        try {
+            out.writeByte(tag);
+            for (long value : values) {
+                writeVarLong(value);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    @Override
+    public void close() {
+        try {
+            out.writeByte(END);
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.graph.flowgraph.FlowKind;
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static pascal.taie.analysis.pta.core.solver.SolverEventLog.readVarLong;
+
+/**
+ * Replays a log written by {@link SolverEventLog} and rebuilds timing
+ * and hot-spot profiles of the solver run.
+ * <p>
+ * Usage: {@code SolverEventReplayer <event-log> [top-N]}
+ */
+public class SolverEventReplayer {
+
+    private static final int DEFAULT_TOP = 20;
+
+    /**
+     * Upper bounds (inclusive) of the buckets of diff-size histogram.
+     */
+    private static final long[] DIFF_BUCKETS = {0, 1, 10, 100, 1000, Long.MAX_VALUE};
+
+    /**
+     * Profile of a method, which aggregates the pointer entries of its
+     * variables and the call edge entries to it.
+     */
+    private static class MethodProfile {
+
+        private final String signature;
+
+        private long pointerEntries;
+
+        private long diffObjects;
+
+        private long callEdges;
+
+        private long nanos;
+
+        private MethodProfile(String signature) {
+            this.signature = signature;
+        }
+    }
+
+    private final Map<Integer, String> strings = Maps.newMap();
+
+    private final Map<Integer, MethodProfile> methods = Maps.newMap();
+
+    private final Map<String, long[]> plugins = Maps.newMap();
+
+    private final long[] pfgEdges = new long[FlowKind.values().length];
+
+    private final long[] diffHistogram = new long[DIFF_BUCKETS.length];
+
+    private long pointerEntries;
+
+    private long pointerNanos;
+
+    private long callEdgeEntries;
+
+    private long newCallEdges;
+
+    private long callEdgeNanos;
+
+    private long newMethods;
+
+    private long pluginNanos;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SolverEventReplayer <event-log> [top-N]");
+            return;
+        }
+        int top = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_TOP;
+        SolverEventReplayer replayer = new SolverEventReplayer();
+        try (InputStream in = Files.newInputStream(Path.of(args[0]))) {
+            replayer.replay(in);
+        }
+        replayer.report(System.out, top);
+    }
+
+    public void replay(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new GZIPInputStream(input)));
+        if (in.readInt() != SolverEventLog.MAGIC) {
+            throw new IOException("Not a solver event log");
+        }
+        int version = in.readInt();
+        if (version != SolverEventLog.VERSION) {
+            throw new IOException("Unsupported event log version " + version);
+        }
+        while (true) {
+            byte tag = in.readByte();
+            switch (tag) {
+                case SolverEventLog.DEFINE -> {
+                    int id = (int) readVarLong(in);
+                    strings.put(id, in.readUTF());
+                }
+                case SolverEventLog.POINTER_ENTRY -> {
+                    readVarLong(in); // pointer index
+                    int method = (int) readVarLong(in);
+                    readVarLong(in); // size of propagated points-to set
+                    long diff = readVarLong(in);
+                    long nanos = readVarLong(in);
+                    ++pointerEntries;
+                    pointerNanos += nanos;
+                    ++diffHistogram[bucketOf(diff)];
+                    if (method != 0) {
+                        MethodProfile profile = getProfile(method);
+                        ++profile.pointerEntries;
+                        profile.diffObjects += diff;
+                        profile.nanos += nanos;
+                    }
+                }
+                case SolverEventLog.CALL_EDGE_ENTRY -> {
+                    readVarLong(in); // caller
+                    int callee = (int) readVarLong(in);
+                    boolean isNew = readVarLong(in) != 0;
+                    long nanos = readVarLong(in);
+                    ++callEdgeEntries;
+                    callEdgeNanos += nanos;
+                    if (isNew) {
+                        ++newCallEdges;
+                        MethodProfile profile = getProfile(callee);
+                        ++profile.callEdges;
+                        profile.nanos += nanos;
+                    }
+                }
+                case SolverEventLog.PFG_EDGE -> {
+                    int kind = (int) readVarLong(in);
+                    readVarLong(in); // source
+                    readVarLong(in); // target
+                    ++pfgEdges[kind];
+                }
+                case SolverEventLog.PLUGIN -> {
+                    String callback = strings.get((int) readVarLong(in));
+                    long nanos = readVarLong(in);
+                    long[] stat = plugins.computeIfAbsent(callback, c -> new long[2]);
+                    ++stat[0];
+                    stat[1] += nanos;
+                    pluginNanos += nanos;
+                }
+                case SolverEventLog.NEW_METHOD -> {
+                    readVarLong(in);
+                    ++newMethods;
+                }
+                case SolverEventLog.END -> {
+                    return;
+                }
+                default -> throw new IOException("Unknown event tag " + tag);
+            }
+        }
+    }
+
+    private MethodProfile getProfile(int id) {
+        return methods.computeIfAbsent(id, i -> new MethodProfile(strings.get(i)));
+    }
+
+    private static int bucketOf(long diff) {
+        int i = 0;
+        while (diff > DIFF_BUCKETS[i]) {
+            ++i;
+        }
+        return i;
+    }
+
+    public void report(PrintStream out, int top) {
+        out.printf("Total time: %.3fs%n",
+                (pointerNanos + callEdgeNanos + pluginNanos) / 1e9);
+        out.printf("Pointer entries: %d (%.3fs)%n", pointerEntries, pointerNanos / 1e9);
+        out.printf("Call edge entries: %d, new: %d (%.3fs)%n",
+                callEdgeEntries, newCallEdges, callEdgeNanos / 1e9);
+        out.printf("Reachable methods: %d%n", newMethods);
+        out.println("Diff size histogram:");
+        for (int i = 0; i < DIFF_BUCKETS.length; ++i) {
+            String range = i == 0 ? "0"
+                    : DIFF_BUCKETS[i] == Long.MAX_VALUE ? ">" + DIFF_BUCKETS[i - 1]
+                    : (DIFF_BUCKETS[i - 1] + 1) + "-" + DIFF_BUCKETS[i];
+            out.printf("  %-10s %d%n", range, diffHistogram[i]);
+        }
+        out.println("PFG edges:");
+        for (FlowKind kind : FlowKind.values()) {
+            if (pfgEdges[kind.ordinal()] > 0) {
+                out.printf("  %-20s %d%n", kind, pfgEdges[kind.ordinal()]);
+            }
+        }
+        out.printf("Plugin callbacks: %.3fs%n", pluginNanos / 1e9);
+        plugins.entrySet()
+                .stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> out.printf("  %-30s %d (%.3fs)%n",
+                        e.getKey(), e.getValue()[0], e.getValue()[1] / 1e9));
+        out.printf("Top %d hot methods:%n", top);
+        methods.values()
+                .stream()
+                .sorted(Comparator.comparingLong((MethodProfile p) -> p.nanos).reversed())
+                .limit(top)
+                .forEach(p -> out.printf("  %.3fs entries=%d diff=%d calls=%d %s%n",
+                        p.nanos / 1e9, p.pointerEntries, p.diffObjects, p.callEdges, p.signature));
+    }
+}
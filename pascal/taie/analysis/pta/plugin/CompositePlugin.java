@@ -112,6 +112,11 @@ public class CompositePlugin implements Plugin {
         allPlugins.forEach(Plugin::onStart);
     }
 
+    @Override
+    public void onFixedPoint() {
+        allPlugins.forEach(Plugin::onFixedPoint);
+    }
+
     @Override
     public void onBeforeFinish() {
         allPlugins.forEach(Plugin::onBeforeFinish);
@@ -58,6 +58,17 @@ public interface Plugin {
     default void onStart() {
     }
 
+    /**
+     * Invoked when the work list becomes empty, before
+     * {@link #onBeforeFinish()}. Plugins that feed the solver
+     * incrementally (e.g., admitting entry points in waves) add
+     * their next batch of work here. If any work is added, the solver
+     * continues solving without invoking {@link #onBeforeFinish()},
+     * so that other plugins do not act on a partial result.
+     */
+    default void onFixedPoint() {
+    }
+
     /**
      * Invoked before pointer analysis finishes.
      * Pointer analysis is still running at this stage,
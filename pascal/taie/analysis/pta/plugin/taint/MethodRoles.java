@@ -0,0 +1,164 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import hldf.taie.analysis.pta.plugin.AnnotationIndex;
+import hldf.taie.analysis.pta.plugin.ComponentType;
+import hldf.taie.analysis.pta.plugin.MybatisSink;
+import hldf.taie.analysis.pta.plugin.WebEntryParamProvider;
+import hldf.taie.analysis.pta.plugin.WebPlugin;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Role bitmask of each method, stored in an array indexed by
+ * {@link JMethod#getIndex()}. Taint handlers check the roles of a method
+ * before accessing their maps, so that the common case, i.e., a method
+ * without any role, costs a single array read.
+ * <p>
+ * Methods without index are conservatively considered to have all roles.
+ */
+class MethodRoles {
+
+    static final int CALL_SOURCE = 1;
+
+    static final int PARAM_SOURCE = 1 << 1;
+
+    static final int TRANSFER = 1 << 2;
+
+    static final int SINK = 1 << 3;
+
+    static final int MYBATIS_MAPPER = 1 << 4;
+
+    static final int WEB_ENTRY = 1 << 5;
+
+    static final int JAVABEAN_SETTER = 1 << 6;
+
+    /**
+     * Whether {@link #JAVABEAN_SETTER} has been computed for the method.
+     * The setter heuristic is expensive, thus it is computed lazily.
+     */
+    private static final int SETTER_RESOLVED = 1 << 30;
+
+    private int[] roles = new int[1024];
+
+    MethodRoles(TaintConfig config) {
+        config.sources().forEach(source -> {
+            if (source instanceof CallSource callSource) {
+                add(callSource.method(), CALL_SOURCE);
+            } else if (source instanceof ParamSource paramSource) {
+                add(paramSource.method(), PARAM_SOURCE);
+            }
+        });
+        config.transfers().forEach(t -> add(t.getMethod(), TRANSFER));
+        config.summaries().forEach(t -> add(t.getMethod(), TRANSFER));
+        config.sinks().forEach(sink -> add(sink.method(), SINK));
+        config.mybatisSinks().stream()
+                .map(MybatisSink::method)
+                .forEach(m -> add(m, MYBATIS_MAPPER));
+        AnnotationIndex index = AnnotationIndex.get();
+        SinkHandler.MYBATIS_SQL_ANNOTATIONS.forEach(type ->
+                index.getMethods(type).forEach(m -> add(m, MYBATIS_MAPPER)));
+        index.getClasses(ComponentType.MapperType.getName()).forEach(mapper ->
+                mapper.getDeclaredMethods().forEach(m -> add(m, MYBATIS_MAPPER)));
+        index.getMethods(WebPlugin.MAPPING_ANNOTATION)
+                .stream()
+                .filter(MethodRoles::computeWebEntry)
+                .forEach(m -> add(m, WEB_ENTRY));
+    }
+
+    void add(JMethod method, int role) {
+        int i = method.getIndex();
+        if (i != -1) {
+            ensureCapacity(i);
+            roles[i] |= role;
+        }
+    }
+
+    /**
+     * @return {@code true} if {@code method} may have any of given roles.
+     */
+    boolean has(@Nullable JMethod method, int role) {
+        if (method == null) {
+            return false;
+        }
+        int i = method.getIndex();
+        if (i == -1) {
+            return true;
+        }
+        return i < roles.length && (roles[i] & role) != 0;
+    }
+
+    /**
+     * @return {@code true} if {@code method} is a request handler of
+     * a Spring MVC controller. Unlike {@link #has(JMethod, int)}, this
+     * is exact also for methods without index, so callers need not
+     * double-check it.
+     */
+    boolean isWebEntry(JMethod method) {
+        int i = method.getIndex();
+        if (i == -1) {
+            return computeWebEntry(method);
+        }
+        return i < roles.length && (roles[i] & WEB_ENTRY) != 0;
+    }
+
+    private static boolean computeWebEntry(JMethod method) {
+        return WebPlugin.isSpringMVController(method.getDeclaringClass())
+                && WebPlugin.isSpringMVCRequest(method);
+    }
+
+    /**
+     * @return {@code true} if {@code method} is a setter of a JavaBean
+     * which takes a non-primitive parameter.
+     */
+    boolean isJavaBeanSetter(JMethod method) {
+        int i = method.getIndex();
+        if (i == -1) {
+            return computeJavaBeanSetter(method);
+        }
+        ensureCapacity(i);
+        if ((roles[i] & SETTER_RESOLVED) == 0) {
+            roles[i] |= SETTER_RESOLVED
+                    | (computeJavaBeanSetter(method) ? JAVABEAN_SETTER : 0);
+        }
+        return (roles[i] & JAVABEAN_SETTER) != 0;
+    }
+
+    private static boolean computeJavaBeanSetter(JMethod method) {
+        ClassType type = method.getDeclaringClass().getType();
+        return method.getName().startsWith("set")
+                && method.getParamCount() > 0
+                && WebEntryParamProvider.isNotPrimitiveType(method.getParamType(0))
+                && WebEntryParamProvider.isJavaBean(type);
+    }
+
+    private void ensureCapacity(int i) {
+        if (i >= roles.length) {
+            roles = Arrays.copyOf(roles, Math.max(i + 1, roles.length * 2));
+        }
+    }
+}
@@ -22,6 +22,7 @@
 
 package pascal.taie.analysis.pta.plugin.taint;
 
+import hldf.taie.analysis.pta.plugin.AnnotationIndex;
 import hldf.taie.analysis.pta.plugin.MybatisHelper;
 import hldf.taie.analysis.pta.plugin.MybatisSink;
 import pascal.taie.World;
@@ -37,11 +38,14 @@ import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
 import pascal.taie.util.collection.MultiMapCollector;
 import pascal.taie.util.collection.Sets;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -50,12 +54,33 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 class SinkHandler extends OnFlyHandler {
 
+    /**
+     * MyBatis annotations that carry SQL statements.
+     */
+    static final List<String> MYBATIS_SQL_ANNOTATIONS = List.of(
+            "org.apache.ibatis.annotations.Select",
+            "org.apache.ibatis.annotations.Delete",
+            "org.apache.ibatis.annotations.Insert",
+            "org.apache.ibatis.annotations.Update");
+
     private final List<Sink> sinks;
 
+    /**
+     * MyBatis sinks extracted from mapper XML files.
+     */
     private final List<MybatisSink> mybatisSinks;
 
-    SinkHandler(HandlerContext context) {
+    /**
+     * MyBatis sinks extracted from SQL annotations, computed once per
+     * mapper method called on an injected mapper object.
+     */
+    private final Map<JMethod, List<MybatisSink>> annotationSinks = Maps.newLinkedHashMap();
+
+    private final MethodRoles roles;
+
+    SinkHandler(HandlerContext context, MethodRoles roles) {
         super(context);
+        this.roles = roles;
         sinks = context.config().sinks();
         mybatisSinks = context.config().mybatisSinks();
     }
@@ -81,7 +106,10 @@ class SinkHandler extends OnFlyHandler {
                                 .forEach(taintFlows::add);
                     });
         });
-        mybatisSinks.forEach(sink -> {
+        Set<MybatisSink> allMybatisSinks = Sets.newOrderedSet();
+        allMybatisSinks.addAll(mybatisSinks);
+        annotationSinks.values().forEach(allMybatisSinks::addAll);
+        allMybatisSinks.forEach(sink -> {
             int i = sink.index();
             String f = sink.field();
             result.getCallGraph()
@@ -151,19 +179,31 @@ class SinkHandler extends OnFlyHandler {
     }
 
     /**
-     * 将Mybatis中存在sql注入的函数加入sink
-     *
+     * 将Mybatis中存在sql注入的函数加入sink，每个函数的注解只解析一次
      */
     @Override
     public void onCallMybatisMethod(CSObj recv, Invoke invoke) {
         if (recv.getObject() instanceof MockObj mockObj && mockObj.getDescriptor().string().equals("DependencyInjectionMapperObj")) {
             JMethod method = invoke.getMethodRef().resolve();
-            method.getAnnotations().stream()
-                    .filter(annotation -> annotation.getType().matches("org\\.apache\\.ibatis\\.annotations\\.(Select|Delete|Insert|Update)") && annotation.hasElement("value"))
-                    .forEach(annotation -> {
-                        String sql = annotation.getElement("value").toString();
-                        mybatisSinks.addAll(MybatisHelper.isSqli(sql, method));
-                    });
+            if (roles.has(method, MethodRoles.MYBATIS_MAPPER)) {
+                annotationSinks.computeIfAbsent(method, SinkHandler::getAnnotationSinks);
+            }
+        }
+    }
+
+    private static List<MybatisSink> getAnnotationSinks(JMethod method) {
+        AnnotationIndex index = AnnotationIndex.get();
+        List<MybatisSink> result = new ArrayList<>();
+        for (String type : MYBATIS_SQL_ANNOTATIONS) {
+            if (index.isAnnotated(method, type)) {
+                List<String> sql = index.getValues(method, type, "value");
+                if (!sql.isEmpty()) {
+                    MybatisHelper.isSqli(String.join(" ", sql), method).stream()
+                            .filter(sink -> !result.contains(sink))
+                            .forEach(result::add);
+                }
+            }
         }
+        return result.isEmpty() ? List.of() : result;
     }
 }
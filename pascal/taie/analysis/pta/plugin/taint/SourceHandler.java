@@ -23,7 +23,6 @@
 package pascal.taie.analysis.pta.plugin.taint;
 
 import hldf.taie.analysis.pta.plugin.WebEntryParamProvider;
-import hldf.taie.analysis.pta.plugin.WebPlugin;
 import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.core.cs.context.Context;
@@ -92,8 +91,11 @@ class SourceHandler extends OnFlyHandler {
      */
     private final MultiMap<JMethod, LoadField> loadedFieldSources = Maps.newMultiMap();
 
-    SourceHandler(HandlerContext context) {
+    private final MethodRoles roles;
+
+    SourceHandler(HandlerContext context, MethodRoles roles) {
         super(context);
+        this.roles = roles;
         context.config().sources().forEach(src -> {
             if (src instanceof CallSource callSrc) {
                 callSources.put(callSrc.method(), callSrc);
@@ -125,7 +127,8 @@ class SourceHandler extends OnFlyHandler {
      */
     @Override
     public void onNewCallEdge(Edge<CSCallSite, CSMethod> edge) {
-        if (edge.getKind() == CallKind.OTHER) {
+        if (edge.getKind() == CallKind.OTHER
+                || !roles.has(edge.getCallee().getMethod(), MethodRoles.CALL_SOURCE)) {
             return;
         }
         Set<CallSource> sources = callSources.get(edge.getCallee().getMethod());
@@ -155,7 +158,7 @@ class SourceHandler extends OnFlyHandler {
             // If method references of any {@link Invoke}s are resolved to
             // call source method, then records the {@link Invoke} statements.
             JMethod callee = invoke.getMethodRef().resolveNullable();
-            if (callSources.containsKey(callee)) {
+            if (roles.has(callee, MethodRoles.CALL_SOURCE) && callSources.containsKey(callee)) {
                 callSiteSources.put(container, invoke);
             }
         }
@@ -175,7 +178,7 @@ class SourceHandler extends OnFlyHandler {
 
     private void handleParamSource(CSMethod csMethod) {
         JMethod method = csMethod.getMethod();
-        if (paramSources.containsKey(method)) {
+        if (roles.has(method, MethodRoles.PARAM_SOURCE) && paramSources.containsKey(method)) {
             Context context = csMethod.getContext();
             IR ir = method.getIR();
             paramSources.get(method).forEach(source -> {
@@ -262,8 +265,7 @@ class SourceHandler extends OnFlyHandler {
      */
     private void handleWebEntryParam(CSMethod csMethod) {
         JMethod method = csMethod.getMethod();
-        if(WebPlugin.isSpringMVController(method.getDeclaringClass())
-                && WebPlugin.isSpringMVCRequest(method)) {
+        if (roles.isWebEntry(method)) {
             Context context = csMethod.getContext();
             IR ir = method.getIR();
 
@@ -285,7 +287,11 @@ class SourceHandler extends OnFlyHandler {
      */
     @Override
     public void onUnresolvedCall(CSObj recv, Context context, Invoke invoke) {
-        Set<CallSource> sources = callSources.get(invoke.getMethodRef().resolve());
+        JMethod callee = invoke.getMethodRef().resolve();
+        if (!roles.has(callee, MethodRoles.CALL_SOURCE)) {
+            return;
+        }
+        Set<CallSource> sources = callSources.get(callee);
         if (!sources.isEmpty()) {
             sources.forEach(source -> processCallSource(context, invoke, source));
         }
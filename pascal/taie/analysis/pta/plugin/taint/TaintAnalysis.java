@@ -75,12 +75,16 @@ public class TaintAnalysis implements Plugin {
                 solver.getHierarchy(),
                 solver.getTypeSystem());
         logger.info(config);
+        // expose the config to other plugins, e.g., for pre-analyses
+        // that run before the solver starts
+        World.get().storeResult(TaintConfig.class.getName(), config);
         HandlerContext context = new HandlerContext(solver, manager, config);
+        MethodRoles roles = new MethodRoles(config);
         CompositePlugin onFlyHandler = new CompositePlugin();
-        transferHandler = new TransferHandler(context);
-        sinkHandler = new SinkHandler(context);
+        transferHandler = new TransferHandler(context, roles);
+        sinkHandler = new SinkHandler(context, roles);
         onFlyHandler.addPlugin(
-                new SourceHandler(context),
+                new SourceHandler(context, roles),
                 transferHandler,
                 new SanitizerHandler(context),
                 sinkHandler);
@@ -96,6 +100,11 @@ public class TaintAnalysis implements Plugin {
         this.onFlyHandler = onFlyHandler;
     }
 
+    @Override
+    public void onStart() {
+        onFlyHandler.onStart();
+    }
+
     @Override
     public void onNewCallEdge(Edge<CSCallSite, CSMethod> edge) {
         onFlyHandler.onNewCallEdge(edge);
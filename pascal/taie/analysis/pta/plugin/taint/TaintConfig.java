@@ -31,6 +31,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import hldf.taie.analysis.pta.plugin.JDKSummaryGenerator;
 import hldf.taie.analysis.pta.plugin.MybatisHelper;
 import hldf.taie.analysis.pta.plugin.MybatisSink;
 import org.apache.logging.log4j.LogManager;
@@ -76,6 +77,7 @@ public record TaintConfig(List<Source> sources,
                           List<Sink> sinks,
                           List<MybatisSink> mybatisSinks,
                           List<TaintTransfer> transfers,
+                          List<TaintTransfer> summaries,
                           List<ParamSanitizer> paramSanitizers,
                           boolean callSiteMode,
                           TransInferConfig inferenceConfig) {
@@ -86,7 +88,7 @@ public record TaintConfig(List<Source> sources,
      * An empty taint config.
      */
     private static final TaintConfig EMPTY = new TaintConfig(
-            List.of(), List.of(), List.of(), List.of(), List.of(), false, TransInferConfig.EMPTY);
+            List.of(), List.of(), List.of(), List.of(), List.of(), List.of(), false, TransInferConfig.EMPTY);
 
     /**
      * Loads a taint analysis configuration from given path.
@@ -155,6 +157,7 @@ public record TaintConfig(List<Source> sources,
                 Lists.concatDistinct(sinks, other.sinks),
                 Lists.concatDistinct(mybatisSinks, other.mybatisSinks),
                 Lists.concatDistinct(transfers, other.transfers),
+                Lists.concatDistinct(summaries, other.summaries),
                 Lists.concatDistinct(paramSanitizers, other.paramSanitizers),
                 callSiteMode || other.callSiteMode,
                 inferenceConfig.mergeWith(other.inferenceConfig)
@@ -179,6 +182,9 @@ public record TaintConfig(List<Source> sources,
             transfers.forEach(transfer ->
                     sb.append("  ").append(transfer).append("\n"));
         }
+        if (!summaries.isEmpty()) {
+            sb.append("\njdk-summaries: ").append(summaries.size()).append("\n");
+        }
         if (!paramSanitizers.isEmpty()) {
             sb.append("\nsanitizers:\n");
             paramSanitizers.forEach(sanitizer ->
@@ -234,14 +240,62 @@ public record TaintConfig(List<Source> sources,
             JsonNode node = oc.readTree(p);
             List<Source> sources = deserializeSources(node.get("sources"));
             List<Sink> sinks = deserializeSinks(node.get("sinks"));
-            List<MybatisSink> mybatisSinks = MybatisHelper.dealMybatisXml(); // 处理mybatis的xml文件
+            List<MybatisSink> mybatisSinks = MybatisHelper.dealMybatisXml(
+                    getMapperScanCacheDir(node.get("mapper-scan-cache"))); // 处理mybatis的xml文件
             List<TaintTransfer> transfers = deserializeTransfers(node.get("transfers"));
+            List<TaintTransfer> summaries = deserializeSummaries(node.get("jdk-summaries"));
             List<ParamSanitizer> sanitizers = deserializeSanitizers(node.get("sanitizers"));
             JsonNode callSiteNode = node.get("call-site-mode");
             TransInferConfig inferenceConfig = deserializeInferenceConfig((node.get("transfer-inference")));
             boolean callSiteMode = (callSiteNode != null && callSiteNode.asBoolean());
             return new TaintConfig(
-                    sources, sinks, mybatisSinks, transfers, sanitizers, callSiteMode, inferenceConfig);
+                    sources, sinks, mybatisSinks, transfers, summaries, sanitizers, callSiteMode, inferenceConfig);
+        }
+
+        /**
+         * Returns the directory of the mapper XML scan cache. The cache is
+         * keyed by content digests, so by default all applications and runs
+         * share {@link MybatisHelper#DEFAULT_MAPPER_SCAN_CACHE_DIR}; a path
+         * selects another directory and {@code false} disables the cache.
+         *
+         * @param node the node to be deserialized
+         * @return the cache directory, or {@code null} if the cache is disabled
+         */
+        @Nullable
+        private static Path getMapperScanCacheDir(JsonNode node) {
+            if (node == null) {
+                return MybatisHelper.DEFAULT_MAPPER_SCAN_CACHE_DIR;
+            }
+            if (node.isBoolean()) {
+                return node.asBoolean() ? MybatisHelper.DEFAULT_MAPPER_SCAN_CACHE_DIR : null;
+            }
+            return Path.of(node.asText());
+        }
+
+        /**
+         * Loads taint transfer summaries of JDK APIs. If the node is
+         * {@code true}, generates the summaries from the JDK in the
+         * class hierarchy by {@link JDKSummaryGenerator}, so they always
+         * match the analyzed JDK; if it is a path, loads the summaries
+         * written by {@link JDKSummaryGenerator} to that file.
+         *
+         * @param node the node to be deserialized
+         * @return list of deserialized summaries
+         */
+        private List<TaintTransfer> deserializeSummaries(JsonNode node) {
+            if (node == null || (node.isBoolean() && !node.asBoolean())) {
+                return List.of();
+            }
+            ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+            try {
+                JsonNode summaries = node.isBoolean()
+                        ? mapper.readTree(JDKSummaryGenerator.toDocument(
+                                JDKSummaryGenerator.generate(hierarchy)))
+                        : mapper.readTree(new File(node.asText()));
+                return deserializeTransfers(summaries.get("transfers"));
+            } catch (IOException e) {
+                throw new ConfigException("Failed to load JDK summaries from " + node.asText(), e);
+            }
         }
 
         /**
@@ -22,7 +22,6 @@
 
 package pascal.taie.analysis.pta.plugin.taint;
 
-import hldf.taie.analysis.pta.plugin.WebEntryParamProvider;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.graph.callgraph.CallKind;
@@ -77,6 +76,19 @@ public class TransferHandler extends OnFlyHandler {
      */
     private final MultiMap<JMethod, TaintTransfer> transfers = Maps.newMultiMap();
 
+    /**
+     * Option for skipping the bodies of methods covered by JDK summaries.
+     * Skipping makes the analysis faster, but points-to facts that flow
+     * only through those bodies (e.g., an object put into a HashMap and
+     * read back) are lost, so it is disabled by default.
+     */
+    private static final String SKIP_SUMMARIZED_BODIES = "skip-summarized-bodies";
+
+    /**
+     * Methods covered by JDK summaries.
+     */
+    private final Set<JMethod> summarizedMethods = Sets.newSet();
+
     private final Map<Type, Transfer> transferFunctions = Maps.newHybridMap();
 
     private enum Kind {
@@ -116,12 +128,31 @@ public class TransferHandler extends OnFlyHandler {
      */
     private int counter = 0;
 
-    TransferHandler(HandlerContext context) {
+    private final MethodRoles roles;
+
+    TransferHandler(HandlerContext context, MethodRoles roles) {
         super(context);
+        this.roles = roles;
         csManager = solver.getCSManager();
         emptyContext = solver.getContextSelector().getEmptyContext();
         context.config().transfers()
                 .forEach(t -> this.transfers.put(t.getMethod(), t));
+        context.config().summaries().forEach(t -> {
+            this.transfers.put(t.getMethod(), t);
+            summarizedMethods.add(t.getMethod());
+        });
+    }
+
+    /**
+     * 开启 {@link #SKIP_SUMMARIZED_BODIES} 时，已有摘要的JDK方法不再分析其方法体，
+     * 否则方法体照常参与指针分析，摘要只用于污点传播
+     */
+    @Override
+    public void onStart() {
+        if (solver.getOptions().has(SKIP_SUMMARIZED_BODIES)
+                && solver.getOptions().getBoolean(SKIP_SUMMARIZED_BODIES)) {
+            summarizedMethods.forEach(solver::addIgnoredMethod);
+        }
     }
 
     public Set<TaintTransfer> getTransfers() {
@@ -282,6 +313,7 @@ public class TransferHandler extends OnFlyHandler {
 
     public void addNewTransfer(TaintTransfer transfer) {
         this.transfers.put(transfer.getMethod(), transfer);
+        roles.add(transfer.getMethod(), MethodRoles.TRANSFER);
         Set<CSCallSite> csCallSites = method2CSCallSite.get(transfer.getMethod());
         for(CSCallSite csCallSite : csCallSites) {
             Context context = csCallSite.getContext();
@@ -299,15 +331,18 @@ public class TransferHandler extends OnFlyHandler {
             return;
         }
         JMethod method = edge.getCallee().getMethod();
+        // 推断出的传播规则可能在之后加入，因此需要记录所有方法的调用点
         method2CSCallSite.put(method, edge.getCallSite());
-        Set<TaintTransfer> tfs = transfers.get(method);
-        if (!tfs.isEmpty()) {
-            Context context = edge.getCallSite().getContext();
-            Invoke callSite = edge.getCallSite().getCallSite();
-            tfs.forEach(tf -> processTransfer(context, callSite, tf));
+        if (roles.has(method, MethodRoles.TRANSFER)) {
+            Set<TaintTransfer> tfs = transfers.get(method);
+            if (!tfs.isEmpty()) {
+                Context context = edge.getCallSite().getContext();
+                Invoke callSite = edge.getCallSite().getCallSite();
+                tfs.forEach(tf -> processTransfer(context, callSite, tf));
+            }
         }
         // 将set方法中的污点对象传播给调用该set方法的对象
-        if (method.getName().startsWith("set") && WebEntryParamProvider.isJavaBean(method.getDeclaringClass().getType()) && WebEntryParamProvider.isNotPrimitiveType(method.getParamType(0))) {
+        if (roles.isJavaBeanSetter(method)) {
             TaintTransfer tf = new ConcreteTransfer(method, new TransferPoint(TransferPoint.Kind.VAR, 0, null), new TransferPoint(TransferPoint.Kind.VAR, -1, null), method.getDeclaringClass().getType());
             processTransfer(edge.getCallSite().getContext(), edge.getCallSite().getCallSite(), tf);
         }
@@ -326,7 +361,7 @@ public class TransferHandler extends OnFlyHandler {
                 stmt instanceof Invoke invoke &&
                 !invoke.isDynamic()) {
             JMethod callee = invoke.getMethodRef().resolveNullable();
-            if (transfers.containsKey(callee)) {
+            if (roles.has(callee, MethodRoles.TRANSFER) && transfers.containsKey(callee)) {
                 callSiteTransfers.put(container, invoke);
             }
         }
@@ -61,6 +61,8 @@ public class ClassHierarchyImpl implements ClassHierarchy {
 
     private int classCounter = 0;
 
+    private int methodCounter = 0;
+
     /**
      * Map from each interface to its direct subinterfaces.
      */
@@ -146,6 +148,11 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         }
         // set index
         jclass.setIndex(classCounter++);
+        jclass.getDeclaredMethods().forEach(method -> {
+            if (method.getIndex() == -1) {
+                method.setIndex(methodCounter++);
+            }
+        });
         classes.add(jclass);
         // invalidate global hierarchy information
         // TODO - make this elegant
@@ -83,6 +83,13 @@ public class JMethod extends ClassMember {
      */
     private transient IR ir;
 
+    /**
+     * Index of this method, assigned by {@link ClassHierarchyImpl} when
+     * the declaring class is added to the hierarchy, or -1 if unassigned
+     * (e.g., for methods created after that).
+     */
+    private int index = -1;
+
     private static final Logger logger = LogManager.getLogger(JMethod.class);
 
     public JMethod(JClass declaringClass, String name, Set<Modifier> modifiers,
@@ -124,6 +131,20 @@ public class JMethod extends ClassMember {
         return paramTypes.size();
     }
 
+    /**
+     * @return the index of this method, or -1 if it has not been assigned.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    void setIndex(int index) {
+        if (this.index != -1) {
+            throw new AnalysisException("index already set");
+        }
+        this.index = index;
+    }
+
     public Type getParamType(int i) {
         return paramTypes.get(i);
     }
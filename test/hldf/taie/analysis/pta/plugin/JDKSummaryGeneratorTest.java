@@ -0,0 +1,31 @@
+package hldf.taie.analysis.pta.plugin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class JDKSummaryGeneratorTest {
+
+    @Test
+    void testDocumentIsTaintConfig() throws IOException {
+        String document = JDKSummaryGenerator.toDocument(List.of(
+                JDKSummaryGenerator.toYAML(
+                        "<java.lang.String: java.lang.String trim()>", "base", "result"),
+                JDKSummaryGenerator.toYAML(
+                        "<java.lang.String: java.lang.String format(java.lang.String,java.lang.Object[])>",
+                        "1[*]", "result")));
+        JsonNode transfers = new ObjectMapper(new YAMLFactory()).readTree(document).get("transfers");
+        assertEquals(2, transfers.size());
+        assertEquals("<java.lang.String: java.lang.String trim()>",
+                transfers.get(0).get("method").asText());
+        assertEquals("base", transfers.get(0).get("from").asText());
+        assertEquals("1[*]", transfers.get(1).get("from").asText());
+        assertEquals("result", transfers.get(1).get("to").asText());
+    }
+}
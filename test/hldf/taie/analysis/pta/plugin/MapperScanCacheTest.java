@@ -0,0 +1,84 @@
+package hldf.taie.analysis.pta.plugin;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class MapperScanCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testStoreAndLoad() {
+        MapperScanCache cache = new MapperScanCache(dir.resolve("cache"));
+        MapperXmlParser.Include include = new MapperXmlParser.Include("columns",
+                Map.of("alias", List.of("user.name", "ids[]"), "literal", List.of()));
+        List<MapperXmlParser.MapperXml> mappers = List.of(
+                new MapperXmlParser.MapperXml("com.example.UserMapper",
+                        Map.of("columns", new MapperXmlParser.SqlPart(
+                                new LinkedHashSet<>(List.of("alias", "table")), List.of())),
+                        List.of(new MapperXmlParser.Statement("find", new MapperXmlParser.SqlPart(
+                                new LinkedHashSet<>(List.of("sort")), List.of(include))))),
+                new MapperXmlParser.MapperXml("com.example.EmptyMapper", Map.of(), List.of()));
+        assertNull(cache.load("key"));
+        cache.store("key", mappers);
+        assertEquals(mappers, cache.load("key"));
+    }
+
+    @Test
+    void testInvalidEntry() throws IOException {
+        Path cacheDir = Files.createDirectories(dir.resolve("cache"));
+        Files.writeString(cacheDir.resolve("old"), "mapper-scan-cache 1\n");
+        assertNull(new MapperScanCache(cacheDir).load("old"));
+    }
+
+    @Test
+    void testTruncatedEntry() throws IOException {
+        Path cacheDir = dir.resolve("cache");
+        MapperScanCache cache = new MapperScanCache(cacheDir);
+        cache.store("key", List.of(new MapperXmlParser.MapperXml("ns", Map.of(), List.of())));
+        List<String> lines = Files.readAllLines(cacheDir.resolve("key"));
+        Files.write(cacheDir.resolve("key"), lines.subList(0, lines.size() - 1));
+        assertNull(cache.load("key"));
+    }
+
+    @Test
+    void testDirectoryDigest() throws IOException {
+        MapperScanCache cache = new MapperScanCache(dir.resolve("cache"));
+        Path classes = Files.createDirectories(dir.resolve("classes/mapper"));
+        Files.writeString(classes.resolve("UserMapper.xml"), "<mapper/>");
+        String digest = cache.digest(dir.resolve("classes").toString());
+        assertNotNull(digest);
+        // 只有Mapper.xml参与摘要
+        Files.writeString(classes.resolve("application.yml"), "a: b");
+        assertEquals(digest, cache.digest(dir.resolve("classes").toString()));
+        Files.writeString(classes.resolve("UserMapper.xml"), "<mapper namespace=\"x\"/>");
+        assertNotEquals(digest, cache.digest(dir.resolve("classes").toString()));
+        assertNull(cache.digest(dir.resolve("missing").toString()));
+    }
+
+    @Test
+    void testPlaceholderOrder() {
+        MapperScanCache cache = new MapperScanCache(dir.resolve("cache"));
+        Set<String> placeholders = new LinkedHashSet<>(List.of("b", "a"));
+        List<MapperXmlParser.MapperXml> mappers = List.of(new MapperXmlParser.MapperXml("ns",
+                Map.of(), List.of(new MapperXmlParser.Statement("s",
+                new MapperXmlParser.SqlPart(placeholders, List.of())))));
+        cache.store("order", mappers);
+        assertEquals(List.of("b", "a"), List.copyOf(
+                cache.load("order").get(0).statements().get(0).sql().placeholders()));
+    }
+}
@@ -0,0 +1,91 @@
+package hldf.taie.analysis.pta.plugin;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class MapperXmlParserTest {
+
+    private static final String NAMESPACE = "com.example.UserMapper";
+
+    private static MapperXmlParser.MapperXml parse(String xml) throws XMLStreamException {
+        return MapperXmlParser.parse(
+                new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testParse() throws XMLStreamException {
+        MapperXmlParser.MapperXml mapper = parse("""
+                <?xml version="1.0" encoding="UTF-8" ?>
+                <!DOCTYPE mapper PUBLIC "-//mybatis.org//DTD Mapper 3.0//EN"
+                        "http://mybatis.org/dtd/mybatis-3-mapper.dtd">
+                <mapper namespace="com.example.UserMapper">
+                    <sql id="order">ORDER BY ${sort}</sql>
+                    <select id="find">
+                        SELECT * FROM t WHERE name = '${user.name}'
+                        <foreach collection="ids" item="id">${id.value}</foreach>
+                        <bind name="pattern" value="'%' + keyword + '%'"/>
+                        AND x LIKE '${pattern}'
+                        <include refid="order"><property name="sort" value="${column}"/></include>
+                    </select>
+                </mapper>
+                """);
+        assertNotNull(mapper);
+        assertEquals(NAMESPACE, mapper.namespace());
+        assertEquals(Set.of("sort"), mapper.fragments().get("order").placeholders());
+        assertEquals(1, mapper.statements().size());
+        MapperXmlParser.Statement find = mapper.statements().get(0);
+        assertEquals("find", find.id());
+        assertEquals(Set.of("user.name", "ids[].value", "keyword"), find.sql().placeholders());
+
+        MapperXmlParser.FragmentIndex index = new MapperXmlParser.FragmentIndex(List.of(mapper));
+        assertEquals(Set.of("user.name", "ids[].value", "keyword", "column"),
+                index.getPlaceholders(NAMESPACE, find.sql()));
+    }
+
+    @Test
+    void testNoNamespace() throws XMLStreamException {
+        assertNull(parse("<mapper><select id=\"find\">${x}</select></mapper>"));
+    }
+
+    @Test
+    void testCrossNamespaceInclude() {
+        MapperXmlParser.MapperXml common = new MapperXmlParser.MapperXml("com.example.Common",
+                Map.of("columns", part(Set.of("table"))), List.of());
+        MapperXmlParser.SqlPart statement = part(Set.of(), include("com.example.Common.columns"));
+        MapperXmlParser.FragmentIndex index = new MapperXmlParser.FragmentIndex(List.of(common,
+                new MapperXmlParser.MapperXml(NAMESPACE, Map.of(), List.of())));
+        assertEquals(Set.of("table"), index.getPlaceholders(NAMESPACE, statement));
+    }
+
+    @Test
+    void testIncludeCycle() {
+        MapperXmlParser.MapperXml mapper = new MapperXmlParser.MapperXml(NAMESPACE, Map.of(
+                "a", part(Set.of("a"), include("b")),
+                "b", part(Set.of("b"), include("a"))), List.of());
+        MapperXmlParser.FragmentIndex index = new MapperXmlParser.FragmentIndex(List.of(mapper));
+        assertEquals(Set.of("a", "b"),
+                index.getPlaceholders(NAMESPACE, part(Set.of(), include("b"))));
+        // 从b展开时a被截断，该结果不能被从a开始的展开复用
+        assertEquals(Set.of("a", "b"),
+                index.getPlaceholders(NAMESPACE, part(Set.of(), include("a"))));
+    }
+
+    private static MapperXmlParser.SqlPart part(Set<String> placeholders,
+                                                MapperXmlParser.Include... includes) {
+        return new MapperXmlParser.SqlPart(placeholders, List.of(includes));
+    }
+
+    private static MapperXmlParser.Include include(String refid) {
+        return new MapperXmlParser.Include(refid, Map.of());
+    }
+}
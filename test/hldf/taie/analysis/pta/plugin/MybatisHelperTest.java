@@ -0,0 +1,37 @@
+package hldf.taie.analysis.pta.plugin;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MybatisHelperTest {
+
+    @Test
+    void testGetPlaceholders() {
+        assertEquals(Set.of(), MybatisHelper.getPlaceholders("SELECT * FROM t WHERE id = #{id}"));
+        assertEquals(Set.of("table", "user.name"), MybatisHelper.getPlaceholders(
+                "SELECT * FROM ${table} WHERE name = '${user.name,jdbcType=VARCHAR}'"));
+        assertEquals(Set.of("ids[]"), MybatisHelper.getPlaceholders("IN (${ids[0]})"));
+    }
+
+    @Test
+    void testGetExpressionPaths() {
+        assertEquals(List.of("keyword"), List.copyOf(
+                MybatisHelper.getExpressionPaths("'%' + keyword + \"%\"")));
+        assertEquals(List.of("user.name", "list[].id"), List.copyOf(
+                MybatisHelper.getExpressionPaths("user.name != null and list[i].id gt 0")));
+        // 静态方法调用和字符串字面量中的内容不是属性路径
+        assertEquals(List.of("name"), List.copyOf(
+                MybatisHelper.getExpressionPaths("@java.lang.String@valueOf(name) eq 'a.b'")));
+    }
+
+    @Test
+    void testGetRoot() {
+        assertEquals("user", MybatisHelper.getRoot("user.name"));
+        assertEquals("ids", MybatisHelper.getRoot("ids[].value"));
+        assertEquals("_parameter", MybatisHelper.getRoot("_parameter"));
+    }
+}
@@ -0,0 +1,67 @@
+package hldf.taie.analysis.pta.plugin;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResultCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testOutputDirIgnored() {
+        ResultCache cache = new ResultCache(dir.resolve("cache"));
+        String key = cache.key(List.of("-m", "Main"));
+        assertEquals(key, cache.key(List.of("-m", "Main")));
+        assertEquals(key, cache.key(List.of("-m", "Main", "--output-dir", "a")));
+        assertEquals(key, cache.key(List.of("--output-dir=b", "-m", "Main")));
+        assertNotEquals(key, cache.key(List.of("-m", "Other")));
+    }
+
+    @Test
+    void testClassPathContent() throws IOException {
+        ResultCache cache = new ResultCache(dir.resolve("cache"));
+        Path jar = Files.writeString(dir.resolve("app.jar"), "v1");
+        List<String> args = List.of("-acp", jar.toString());
+        String key = cache.key(args);
+        Files.writeString(jar, "v2");
+        assertNotEquals(key, cache.key(args));
+    }
+
+    @Test
+    void testTaintConfigDirOnlyYAML() throws IOException {
+        ResultCache cache = new ResultCache(dir.resolve("cache"));
+        Path config = Files.createDirectories(dir.resolve("taint"));
+        Files.writeString(config.resolve("sinks.yml"), "sinks: []");
+        List<String> args = List.of("-a", "pta=cs:ci;taint-config:" + config);
+        String key = cache.key(args);
+        Files.writeString(config.resolve("notes.txt"), "ignored");
+        assertEquals(key, cache.key(args));
+        Files.writeString(config.resolve("sinks.yml"), "sinks: [x]");
+        assertNotEquals(key, cache.key(args));
+    }
+
+    @Test
+    void testStoreAndLoad() throws IOException {
+        ResultCache cache = new ResultCache(dir.resolve("cache"));
+        Path output = Files.createDirectories(dir.resolve("output"));
+        Files.writeString(output.resolve("taint-flow-graph.dot"), "digraph {}");
+        String key = cache.key(List.of("-m", "Main"));
+        assertNull(cache.load(key, output));
+        cache.store(key, List.of("flow1", "flow2"), output);
+
+        Path restored = dir.resolve("restored");
+        assertEquals(List.of("flow1", "flow2"), cache.load(key, restored));
+        assertTrue(Files.isRegularFile(restored.resolve("taint-flow-graph.dot")));
+    }
+}
@@ -0,0 +1,70 @@
+package hldf.taie.analysis.pta.plugin;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WebRoutesTest {
+
+    private static List<WebRoutes.Route> routes(String... paths) {
+        return Arrays.stream(paths)
+                .map(path -> new WebRoutes.Route("GET", path))
+                .toList();
+    }
+
+    @Test
+    void testUnscoped() {
+        WebRoutes routes = new WebRoutes(null, " ");
+        assertFalse(routes.isScoped());
+        assertTrue(routes.isIncluded(routes("/any/path")));
+    }
+
+    @Test
+    void testSingleStar() {
+        WebRoutes routes = new WebRoutes("/api/*", null);
+        assertTrue(routes.isScoped());
+        assertTrue(routes.isIncluded(routes("/api/users")));
+        assertFalse(routes.isIncluded(routes("/api/users/1")));
+        assertFalse(routes.isIncluded(routes("/admin/users")));
+    }
+
+    @Test
+    void testDoubleStarMatchesParent() {
+        WebRoutes routes = new WebRoutes("/api/**", null);
+        assertTrue(routes.isIncluded(routes("/api")));
+        assertTrue(routes.isIncluded(routes("/api/users/1")));
+        assertFalse(routes.isIncluded(routes("/apis")));
+    }
+
+    @Test
+    void testQuestionMarkAndLiterals() {
+        WebRoutes routes = new WebRoutes("/v?/items.json", null);
+        assertTrue(routes.isIncluded(routes("/v1/items.json")));
+        assertFalse(routes.isIncluded(routes("/v1/itemsXjson")));
+        assertFalse(routes.isIncluded(routes("/v10/items.json")));
+    }
+
+    @Test
+    void testExclude() {
+        WebRoutes routes = new WebRoutes("/api/**", "/api/internal/**, /api/health");
+        assertTrue(routes.isIncluded(routes("/api/users")));
+        assertFalse(routes.isIncluded(routes("/api/internal/jobs")));
+        assertFalse(routes.isIncluded(routes("/api/health")));
+    }
+
+    @Test
+    void testAnyRouteIncluded() {
+        WebRoutes routes = new WebRoutes("/api/**", null);
+        assertTrue(routes.isIncluded(routes("/admin/users", "/api/users")));
+    }
+
+    @Test
+    void testUnroutedEntryKept() {
+        WebRoutes routes = new WebRoutes("/api/**", "/**");
+        assertTrue(routes.isIncluded(List.of()));
+    }
+}
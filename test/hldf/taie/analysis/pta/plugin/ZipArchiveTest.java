@@ -0,0 +1,126 @@
+package hldf.taie.analysis.pta.plugin;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ZipArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testEntries() throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("b/UserMapper.xml", bytes("<mapper namespace=\"b\"/>"));
+        entries.put("a/", new byte[0]);
+        entries.put("a/OrderMapper.xml", bytes("<mapper namespace=\"a\"/>"));
+        Path jar = Files.write(dir.resolve("app.jar"), zip(entries, false, "comment"));
+        try (ZipArchive archive = ZipArchive.open(jar)) {
+            List<String> names = archive.entries().stream().map(ZipArchive.Entry::name).toList();
+            assertEquals(List.of("a/", "a/OrderMapper.xml", "b/UserMapper.xml"), names);
+            assertTrue(archive.entries().get(0).isDirectory());
+            assertFalse(archive.entries().get(1).isDirectory());
+            assertArrayEquals(entries.get("a/OrderMapper.xml"), read(archive, archive.entries().get(1)));
+            assertArrayEquals(entries.get("b/UserMapper.xml"), read(archive, archive.entries().get(2)));
+        }
+    }
+
+    @Test
+    void testStoredEntries() throws IOException {
+        Path jar = Files.write(dir.resolve("app.jar"),
+                zip(Map.of("UserMapper.xml", bytes("<mapper/>")), true, null));
+        try (ZipArchive archive = ZipArchive.open(jar)) {
+            assertArrayEquals(bytes("<mapper/>"), read(archive, archive.entries().get(0)));
+        }
+    }
+
+    @Test
+    void testNestedJars() throws IOException {
+        byte[] inner = zip(Map.of("InnerMapper.xml", bytes("inner")), true, null);
+        Map<String, byte[]> libEntries = new LinkedHashMap<>();
+        libEntries.put("mapper/LibMapper.xml", bytes("lib"));
+        libEntries.put("BOOT-INF/lib/inner.jar", inner);
+        Map<String, byte[]> entries = Map.of("BOOT-INF/lib/lib.jar", zip(libEntries, true, null));
+        // 不压缩的嵌套jar读取文件中的区间，压缩的嵌套jar解压到内存中
+        for (boolean stored : List.of(true, false)) {
+            Path jar = Files.write(dir.resolve("app.jar"), zip(entries, stored, null));
+            try (ZipArchive archive = ZipArchive.open(jar)) {
+                ZipArchive lib = archive.openNested(archive.entries().get(0));
+                List<String> names = lib.entries().stream().map(ZipArchive.Entry::name).toList();
+                assertEquals(List.of("BOOT-INF/lib/inner.jar", "mapper/LibMapper.xml"), names);
+                assertArrayEquals(bytes("lib"), read(lib, lib.entries().get(1)));
+                ZipArchive nested = lib.openNested(lib.entries().get(0));
+                assertArrayEquals(bytes("inner"), read(nested, nested.entries().get(0)));
+            }
+        }
+    }
+
+    @Test
+    void testClose() throws IOException {
+        Path jar = Files.write(dir.resolve("app.jar"),
+                zip(Map.of("UserMapper.xml", bytes("<mapper/>")), false, null));
+        ZipArchive archive = ZipArchive.open(jar);
+        ZipArchive.Entry entry = archive.entries().get(0);
+        archive.close();
+        assertThrows(IOException.class, () -> read(archive, entry));
+    }
+
+    @Test
+    void testNotZip() throws IOException {
+        Path file = Files.write(dir.resolve("plain.jar"), bytes("not a zip archive"));
+        assertThrows(IOException.class, () -> ZipArchive.open(file));
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] read(ZipArchive archive, ZipArchive.Entry entry) throws IOException {
+        try (InputStream in = archive.getInputStream(entry)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] zip(Map<String, byte[]> entries, boolean stored, String comment)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            if (comment != null) {
+                zip.setComment(comment);
+            }
+            for (Map.Entry<String, byte[]> e : entries.entrySet()) {
+                ZipEntry entry = new ZipEntry(e.getKey());
+                if (stored) {
+                    CRC32 crc = new CRC32();
+                    crc.update(e.getValue());
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(e.getValue().length);
+                    entry.setCrc(crc.getValue());
+                }
+                zip.putNextEntry(entry);
+                zip.write(e.getValue());
+                zip.closeEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+}